@@ -13,4 +13,26 @@ create table team
     updateTime  datetime default CURRENT_TIMESTAMP null on update CURRENT_TIMESTAMP,
     isDelete    tinyint  default 0                 not null comment '是否删除'
 )
-    comment '队伍';
\ No newline at end of file
+    comment '队伍';
+
+/*'以下语句目的是在原有的team表中添加memberCount字段（已加入的用户数），并按user_team表初始化'*/
+alter table team add COLUMN memberCount int default 0 not null comment '已加入的用户数' after maxNum;
+
+update team t
+set t.memberCount = (select count(*) from user_team ut where ut.teamId = t.id and ut.isDelete = 0);
+
+/*'以下语句目的是为队伍游标分页添加索引，按 status 过滤后沿 (createTime, id) 顺序扫描'*/
+create index idx_status_createTime_id on team (status, createTime, id);
+
+/*'以下语句目的是为队伍搜索索引的增量同步添加索引，按 updateTime 查询最近变更的队伍'*/
+create index idx_updateTime on team (updateTime);
+
+/*'以下语句目的是在原有的team表中添加isExpired字段（是否已过期），由过期调度器在到期时标记，列表查询不再比较过期时间'*/
+alter table team add COLUMN isExpired tinyint default 0 not null comment '是否已过期' after expireTime;
+
+update team set isExpired = 1 where expireTime <= now();
+
+drop index idx_status_createTime_id on team;
+create index idx_status_isExpired_createTime_id on team (status, isExpired, createTime, id);
+/*'过期扫描：查找已到期但尚未标记的队伍'*/
+create index idx_isExpired_expireTime on team (isExpired, expireTime);
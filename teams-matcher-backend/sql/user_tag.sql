@@ -0,0 +1,18 @@
+create table user_tag
+(
+    id         bigint auto_increment comment 'id' primary key,
+    userId     bigint                             not null comment '用户 id',
+    tagId      bigint                             not null comment '标签 id',
+    createTime datetime default CURRENT_TIMESTAMP null comment '创建时间',
+    constraint uniIdx_userId_tagId
+        unique (userId, tagId)
+)
+    comment '用户标签关系';
+
+-- 按标签查用户
+create index idx_tagId_userId
+    on user_tag (tagId, userId);
+
+-- 按标签名解析标签 id
+create index idx_tagName
+    on tag (tagName);
@@ -8,4 +8,19 @@ create table user_team
     updateTime datetime default CURRENT_TIMESTAMP null on update CURRENT_TIMESTAMP,
     isDelete   tinyint  default 0                 not null comment '是否删除'
 )
-    comment '用户队伍关系';
\ No newline at end of file
+    comment '用户队伍关系';
+
+/*'以下语句目的是为加入队伍的 OPTIMISTIC 模式添加唯一约束：同一用户在同一队伍中只能有一条未删除的关系'*/
+/*'关系表使用逻辑删除，activeFlag 在已删除的行上为 null，唯一索引不约束 null，退出后可以再次加入'*/
+update user_team ut
+    join (select userId, teamId, min(id) as keepId
+          from user_team
+          where isDelete = 0
+          group by userId, teamId
+          having count(*) > 1) d on ut.userId = d.userId and ut.teamId = d.teamId
+set ut.isDelete = 1
+where ut.isDelete = 0 and ut.id <> d.keepId;
+
+alter table user_team add COLUMN activeFlag tinyint as (if(isDelete = 0, 1, null)) virtual comment '未删除时为 1，用于唯一约束';
+
+create unique index uniIdx_userId_teamId_activeFlag on user_team (userId, teamId, activeFlag);
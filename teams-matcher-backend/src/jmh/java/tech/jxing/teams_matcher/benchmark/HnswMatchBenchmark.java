@@ -0,0 +1,79 @@
+package tech.jxing.teams_matcher.benchmark;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+import tech.jxing.teams_matcher.manager.UserVectorIndex;
+import tech.jxing.teams_matcher.model.enums.MatchModeEnum;
+import tech.jxing.teams_matcher.utils.TopKCollector;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HNSW 标签向量匹配基准测试（索引构建在 Setup 中完成，不计入结果）
+ * 与 MatchUsersBenchmark 中的精确匹配对比，查询耗时应基本不随用户规模增长
+ *
+ * @author JunXing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HnswMatchBenchmark {
+
+    private static final int NUM = 20;
+
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "100000", "1000000"})
+    private int userCount;
+
+    private UserVectorIndex vectorIndex;
+
+    private int[][] targets;
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticUsers users = new SyntheticUsers(userCount, 20240409L);
+        TagDictionary tagDictionary = SyntheticUsers.newTagDictionary();
+        UserTagProfileStore store = users.newProfileStore(tagDictionary);
+        UserMatchProperties properties = new UserMatchProperties();
+        properties.setMode(MatchModeEnum.HNSW);
+        properties.setHierarchyAware(false);
+        vectorIndex = new UserVectorIndex();
+        SyntheticUsers.inject(vectorIndex, "userTagProfileStore", store);
+        SyntheticUsers.inject(vectorIndex, "userMatchProperties", properties);
+        vectorIndex.init();
+        Random random = new Random(1);
+        Gson gson = new Gson();
+        targets = new int[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            targets[i] = store.encode(gson.toJson(SyntheticUsers.randomTags(random)));
+        }
+    }
+
+    @Benchmark
+    public List<TopKCollector.Entry<Long>> search() {
+        index = (index + 1) & (QUERIES - 1);
+        return vectorIndex.search(targets[index], 0, NUM);
+    }
+}
@@ -0,0 +1,116 @@
+package tech.jxing.teams_matcher.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.math3.util.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.UserMatchEngine;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+import tech.jxing.teams_matcher.utils.AlgorithmUtils;
+import tech.jxing.teams_matcher.utils.TopKCollector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 用户匹配基准测试（不含数据库查询）
+ * legacyScan 复现最初 matchUsers 的打分循环：逐个反序列化标签 JSON、计算完整编辑距离、全量排序后取前 num 个；
+ * engineSequential / engineParallel 为当前基于标签画像与 Top-K 剪枝的匹配引擎
+ *
+ * @author JunXing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MatchUsersBenchmark {
+
+    private static final int NUM = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    private int userCount;
+
+    private SyntheticUsers users;
+
+    private UserMatchEngine sequentialEngine;
+
+    private UserMatchEngine parallelEngine;
+
+    private String targetTagsJson;
+
+    private int[] targetProfile;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        users = new SyntheticUsers(userCount, 20240409L);
+        TagDictionary tagDictionary = SyntheticUsers.newTagDictionary();
+        UserTagProfileStore store = users.newProfileStore(tagDictionary);
+        sequentialEngine = newEngine(store, Integer.MAX_VALUE);
+        parallelEngine = newEngine(store, 0);
+        targetTagsJson = new Gson().toJson(SyntheticUsers.randomTags(new Random(1)));
+        targetProfile = store.encode(targetTagsJson);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sequentialEngine.destroy();
+        parallelEngine.destroy();
+    }
+
+    private static UserMatchEngine newEngine(UserTagProfileStore store, int parallelThreshold) {
+        UserMatchProperties properties = new UserMatchProperties();
+        properties.setParallelThreshold(parallelThreshold);
+        properties.setHierarchyAware(false);
+        UserMatchEngine engine = new UserMatchEngine();
+        SyntheticUsers.inject(engine, "userTagProfileStore", store);
+        SyntheticUsers.inject(engine, "userMatchProperties", properties);
+        engine.init();
+        return engine;
+    }
+
+    @Benchmark
+    public List<Long> legacyScan() {
+        Gson gson = new Gson();
+        List<String> tagsList = gson.fromJson(targetTagsJson, new TypeToken<List<String>>(){}.getType());
+        List<Pair<Long, Long>> list = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            List<String> userTagsList = gson.fromJson(users.tagsJson(i), new TypeToken<List<String>>(){}.getType());
+            long distance = AlgorithmUtils.miniDistance(tagsList, userTagsList);
+            list.add(new Pair<>(users.userId(i), distance));
+        }
+        return list.stream()
+                .sorted((a, b) -> (int) (a.getValue() - b.getValue()))
+                .limit(NUM)
+                .map(Pair::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<TopKCollector.Entry<Long>> engineSequential() {
+        return sequentialEngine.topK(targetProfile, 0, NUM);
+    }
+
+    @Benchmark
+    public List<TopKCollector.Entry<Long>> engineParallel() {
+        return parallelEngine.topK(targetProfile, 0, NUM);
+    }
+}
@@ -0,0 +1,109 @@
+package tech.jxing.teams_matcher.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.utils.AlgorithmUtils;
+import tech.jxing.teams_matcher.utils.TagClosure;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编辑距离基准测试：字符串列表版本、标签 id 数组版本、带上界剪枝的版本以及层级感知版本
+ * 每次调用遍历一组预先生成的标签对，避免单对输入被 JIT 特化
+ *
+ * @author JunXing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MiniDistanceBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    private List<String>[] tagLists1;
+
+    private List<String>[] tagLists2;
+
+    private int[][] tagIds1;
+
+    private int[][] tagIds2;
+
+    private TagClosure closure;
+
+    private int index;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Random random = new Random(20240409L);
+        TagDictionary tagDictionary = SyntheticUsers.newTagDictionary();
+        tagLists1 = new List[PAIRS];
+        tagLists2 = new List[PAIRS];
+        tagIds1 = new int[PAIRS][];
+        tagIds2 = new int[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            tagLists1[i] = SyntheticUsers.randomTags(random);
+            tagLists2[i] = SyntheticUsers.randomTags(random);
+            tagIds1[i] = tagDictionary.encode(tagLists1[i]);
+            tagIds2[i] = tagDictionary.encode(tagLists2[i]);
+        }
+        // 每 10 个标签组成一棵两层的树：第一个为父标签，其余为子标签
+        int[] parent = new int[SyntheticUsers.VOCABULARY.length];
+        for (int id = 0; id < parent.length; id++) {
+            parent[id] = id % 10 == 0 ? -1 : id - id % 10;
+        }
+        closure = TagClosure.build(parent);
+    }
+
+    private int next() {
+        index = (index + 1) & (PAIRS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int stringList() {
+        int i = next();
+        return AlgorithmUtils.miniDistance(tagLists1[i], tagLists2[i]);
+    }
+
+    @Benchmark
+    public int intArray() {
+        int i = next();
+        return AlgorithmUtils.miniDistance(tagIds1[i], tagIds2[i]);
+    }
+
+    @Benchmark
+    public int boundedUnlimited() {
+        int i = next();
+        return AlgorithmUtils.boundedMiniDistance(tagIds1[i], tagIds2[i], Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int hierarchyUnlimited() {
+        int i = next();
+        return AlgorithmUtils.boundedHierarchyDistance(tagIds1[i], tagIds2[i], Integer.MAX_VALUE, closure);
+    }
+
+    /**
+     * Top-K 收满后的典型场景：上界很小，大部分候选会被提前淘汰
+     */
+    @Benchmark
+    public int boundedTight() {
+        int i = next();
+        return AlgorithmUtils.boundedMiniDistance(tagIds1[i], tagIds2[i], 2);
+    }
+}
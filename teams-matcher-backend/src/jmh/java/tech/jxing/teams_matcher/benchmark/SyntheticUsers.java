@@ -0,0 +1,113 @@
+package tech.jxing.teams_matcher.benchmark;
+
+import com.google.gson.Gson;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试使用的合成用户数据
+ * 使用固定随机种子生成，保证每次运行的数据完全一致；
+ * 标签按幂律分布抽取，少数热门标签覆盖大量用户，接近真实的标签分布
+ *
+ * @author JunXing
+ */
+public class SyntheticUsers {
+
+    /**
+     * 标签词表：前面的标签更热门
+     */
+    public static final String[] VOCABULARY = {
+            "Java", "男", "大一", "大二", "C++", "Python", "女", "大三", "Go", "大四",
+            "前端", "后端", "算法", "研一", "研二", "Rust", "C#", "PHP", "Vue", "React",
+            "Spring", "MySQL", "Redis", "Linux", "Docker", "K8s", "机器学习", "深度学习", "安卓", "iOS",
+            "游戏开发", "嵌入式", "测试", "运维", "产品", "设计", "考研", "求职", "竞赛", "开源",
+            "篮球", "足球", "羽毛球", "跑步", "健身", "音乐", "摄影", "旅行", "电影", "阅读",
+            "单片机", "大数据", "区块链", "网络安全", "Kotlin", "Swift", "Node.js", "TypeScript", "小程序", "Flutter"
+    };
+
+    private static final Gson GSON = new Gson();
+
+    private final long[] userIds;
+
+    private final String[] tagsJson;
+
+    public SyntheticUsers(int userCount, long seed) {
+        Random random = new Random(seed);
+        userIds = new long[userCount];
+        tagsJson = new String[userCount];
+        for (int i = 0; i < userCount; i++) {
+            userIds[i] = i + 1;
+            tagsJson[i] = GSON.toJson(randomTags(random));
+        }
+    }
+
+    /**
+     * 随机生成 3 ~ 8 个不重复的标签
+     */
+    public static List<String> randomTags(Random random) {
+        int count = 3 + random.nextInt(6);
+        List<String> tags = new ArrayList<>(count);
+        while (tags.size() < count) {
+            // 平方后偏向较小的下标，形成热门标签
+            double r = random.nextDouble();
+            String tag = VOCABULARY[(int) (r * r * VOCABULARY.length)];
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    public int size() {
+        return userIds.length;
+    }
+
+    public long userId(int index) {
+        return userIds[index];
+    }
+
+    public String tagsJson(int index) {
+        return tagsJson[index];
+    }
+
+    /**
+     * 构建不依赖数据库的标签字典
+     */
+    public static TagDictionary newTagDictionary() {
+        TagDictionary tagDictionary = new TagDictionary();
+        for (String tagName : VOCABULARY) {
+            tagDictionary.getOrCreateId(tagName);
+        }
+        return tagDictionary;
+    }
+
+    /**
+     * 构建不依赖数据库的用户标签画像存储，并写入所有合成用户
+     */
+    public UserTagProfileStore newProfileStore(TagDictionary tagDictionary) {
+        UserTagProfileStore store = new UserTagProfileStore();
+        inject(store, "tagDictionary", tagDictionary);
+        for (int i = 0; i < size(); i++) {
+            store.put(userIds[i], tagsJson[i]);
+        }
+        return store;
+    }
+
+    /**
+     * 为不经过 Spring 容器创建的组件注入依赖
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package tech.jxing.teams_matcher.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+import tech.jxing.teams_matcher.utils.TagList;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标签 JSON 解析基准测试
+ * newGsonPerCall 对应原先每次调用都 new Gson() 与 new TypeToken 的写法；
+ * sharedGson 复用 Gson 与 Type 实例；tagListParse 为结果映射时 TagListTypeHandler 的解析（相同 JSON 命中驻留缓存）；
+ * encodeProfile 解析后再编码为标签 id 数组（画像写入时的开销）
+ *
+ * @author JunXing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagParseBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private static final Gson GSON = new Gson();
+
+    private static final Type TAG_LIST_TYPE = new TypeToken<List<String>>(){}.getType();
+
+    private SyntheticUsers users;
+
+    private UserTagProfileStore store;
+
+    private int index;
+
+    /**
+     * 模拟内存中持有这些标签列表的用户对象，避免驻留表中的弱引用被回收
+     */
+    private TagList[] retained;
+
+    @Setup
+    public void setup() {
+        users = new SyntheticUsers(SAMPLES, 20240409L);
+        TagDictionary tagDictionary = SyntheticUsers.newTagDictionary();
+        store = new UserTagProfileStore();
+        SyntheticUsers.inject(store, "tagDictionary", tagDictionary);
+        retained = new TagList[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            retained[i] = TagList.parse(users.tagsJson(i));
+        }
+    }
+
+    private String next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return users.tagsJson(index);
+    }
+
+    @Benchmark
+    public List<String> newGsonPerCall() {
+        Gson gson = new Gson();
+        return gson.fromJson(next(), new TypeToken<List<String>>(){}.getType());
+    }
+
+    @Benchmark
+    public List<String> sharedGson() {
+        return GSON.fromJson(next(), TAG_LIST_TYPE);
+    }
+
+    @Benchmark
+    public TagList tagListParse() {
+        return TagList.parse(next());
+    }
+
+    @Benchmark
+    public int[] encodeProfile() {
+        return store.encode(next());
+    }
+}
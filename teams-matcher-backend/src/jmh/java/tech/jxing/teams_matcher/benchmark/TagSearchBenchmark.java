@@ -0,0 +1,108 @@
+package tech.jxing.teams_matcher.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import tech.jxing.teams_matcher.config.TagSearchProperties;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.UserTagInvertedIndex;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按标签搜索用户基准测试（不含数据库查询）
+ * legacyFilter 复现最初 searchUserByTags 的内存过滤：逐个反序列化标签 JSON 后判断是否包含所有标签；
+ * sharedGsonFilter 只把 Gson 与 Type 提升为共享实例，用于单独衡量 JSON 解析的开销；
+ * invertedIndex 为当前的标签倒排位图求交
+ *
+ * @author JunXing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TagSearchBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    private static final Type TAG_SET_TYPE = new TypeToken<Set<String>>(){}.getType();
+
+    @Param({"10000", "100000", "1000000"})
+    private int userCount;
+
+    /**
+     * 查询条件：一个热门标签加一个较冷门的标签
+     */
+    private final List<String> tagNameList = Arrays.asList("Java", "后端");
+
+    private SyntheticUsers users;
+
+    private UserTagInvertedIndex invertedIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        users = new SyntheticUsers(userCount, 20240409L);
+        TagDictionary tagDictionary = SyntheticUsers.newTagDictionary();
+        UserTagProfileStore store = users.newProfileStore(tagDictionary);
+        invertedIndex = new UserTagInvertedIndex();
+        SyntheticUsers.inject(invertedIndex, "userTagProfileStore", store);
+        SyntheticUsers.inject(invertedIndex, "tagDictionary", tagDictionary);
+        TagSearchProperties properties = new TagSearchProperties();
+        properties.setExpandDescendants(false);
+        SyntheticUsers.inject(invertedIndex, "tagSearchProperties", properties);
+        invertedIndex.init();
+    }
+
+    @Benchmark
+    public int legacyFilter() {
+        Gson gson = new Gson();
+        int count = 0;
+        for (int i = 0; i < users.size(); i++) {
+            Set<String> tempTagNameSet = gson.fromJson(users.tagsJson(i), new TypeToken<Set<String>>(){}.getType());
+            tempTagNameSet = Optional.ofNullable(tempTagNameSet).orElse(new HashSet<>());
+            if (tempTagNameSet.containsAll(tagNameList)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int sharedGsonFilter() {
+        int count = 0;
+        for (int i = 0; i < users.size(); i++) {
+            Set<String> tempTagNameSet = GSON.fromJson(users.tagsJson(i), TAG_SET_TYPE);
+            if (tempTagNameSet != null && tempTagNameSet.containsAll(tagNameList)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long invertedIndex() {
+        Roaring64NavigableMap result = invertedIndex.searchAll(tagNameList);
+        return result.getLongCardinality();
+    }
+}
@@ -1,11 +1,14 @@
 package tech.jxing.teams_matcher.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.autoconfigure.ConfigurationCustomizer;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import tech.jxing.teams_matcher.handler.TagListTypeHandler;
+import tech.jxing.teams_matcher.utils.TagList;
 
 /**
  * @author JunXing
@@ -23,4 +26,12 @@ public class MybatisPlusConfig {
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
         return interceptor;
     }
+
+    /**
+     * 注册标签列表的类型转换器，在解析 Mapper XML 之前生效
+     */
+    @Bean
+    public ConfigurationCustomizer typeHandlerCustomizer() {
+        return configuration -> configuration.getTypeHandlerRegistry().register(TagList.class, new TagListTypeHandler());
+    }
 }
@@ -0,0 +1,61 @@
+package tech.jxing.teams_matcher.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import tech.jxing.teams_matcher.model.enums.TagSearchModeEnum;
+
+/**
+ * 标签搜索配置
+ *
+ * @author JunXing
+ */
+@Configuration
+@ConfigurationProperties(prefix = "teamsmatcher.tag-search")
+@Data
+public class TagSearchProperties {
+
+    /**
+     * 标签搜索实现方式，默认使用内存倒排索引
+     */
+    private TagSearchModeEnum mode = TagSearchModeEnum.INDEX;
+
+    /**
+     * 按 id 批量回表查询用户时每批的大小
+     */
+    private int fetchBatchSize = 1000;
+
+    /**
+     * 是否按标签层级扩展查询条件：搜索某个标签时，拥有其任一子孙标签的用户也视为拥有该标签
+     */
+    private boolean expandDescendants = true;
+
+    /**
+     * user_tag 关系表回填任务配置
+     */
+    private Backfill backfill = new Backfill();
+
+    @Data
+    public static class Backfill {
+
+        /**
+         * 是否启用回填任务
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每批处理的用户数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 每次调度最多处理的批数
+         */
+        private int batchesPerRun = 20;
+
+        /**
+         * 调度间隔（毫秒）
+         */
+        private long fixedDelay = 60000;
+    }
+}
@@ -0,0 +1,192 @@
+package tech.jxing.teams_matcher.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import tech.jxing.teams_matcher.model.enums.TeamJoinModeEnum;
+import tech.jxing.teams_matcher.model.enums.TeamSearchModeEnum;
+
+/**
+ * 队伍配置
+ *
+ * @author JunXing
+ */
+@Configuration
+@ConfigurationProperties(prefix = "teamsmatcher.team")
+@Data
+public class TeamProperties {
+
+    /**
+     * 关键词搜索配置
+     */
+    private Search search = new Search();
+
+    /**
+     * 队伍列表缓存配置
+     */
+    private ListCache listCache = new ListCache();
+
+    /**
+     * 队伍过期配置
+     */
+    private Expiry expiry = new Expiry();
+
+    /**
+     * 加入队伍配置
+     */
+    private Join join = new Join();
+
+    /**
+     * 已加入用户数校正任务配置
+     */
+    private Reconcile reconcile = new Reconcile();
+
+    @Data
+    public static class Reconcile {
+
+        /**
+         * 是否启用校正任务
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每批检查的队伍数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 每次调度最多检查的批数
+         */
+        private int batchesPerRun = 20;
+
+        /**
+         * 调度间隔（毫秒）
+         */
+        private long fixedDelay = 300000;
+    }
+
+    @Data
+    public static class Search {
+
+        /**
+         * 搜索实现方式
+         */
+        private TeamSearchModeEnum mode = TeamSearchModeEnum.INDEX;
+
+        /**
+         * 一次搜索最多返回的队伍数量（按相关度截取）
+         */
+        private int maxResults = 1000;
+
+        /**
+         * 从数据库同步其他节点变更的间隔（毫秒）
+         */
+        private long refreshDelay = 5000;
+    }
+
+    @Data
+    public static class ListCache {
+
+        /**
+         * 是否启用队伍列表缓存
+         */
+        private boolean enabled = true;
+
+        /**
+         * 缓存过期时间（秒），同时也是创建者信息等不触发版本变更的数据的最长延迟
+         */
+        private long expireSeconds = 300;
+    }
+
+    @Data
+    public static class Expiry {
+
+        /**
+         * 是否启用过期调度（关闭后不再标记过期队伍，队伍列表改为按过期时间过滤）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 兜底扫描每次最多标记的队伍数量
+         */
+        private int sweepBatchSize = 500;
+
+        /**
+         * 兜底扫描间隔（毫秒）
+         */
+        private long sweepFixedDelay = 60000;
+    }
+
+    @Data
+    public static class Join {
+
+        /**
+         * 并发控制方式
+         */
+        private TeamJoinModeEnum mode = TeamJoinModeEnum.LOCK;
+
+        /**
+         * 等待用户锁与队伍锁的最长时间（毫秒），超时后提示稍后重试
+         */
+        private long lockWaitMillis = 3000;
+
+        /**
+         * REDIS 模式下用户队伍集合与队伍名额键的过期时间（毫秒），每次预占时续期
+         */
+        private long reservationTtlMillis = 3600000;
+
+        /**
+         * OPTIMISTIC 模式下事务因死锁或等待行锁超时失败后的最多重试次数
+         */
+        private int optimisticMaxRetries = 3;
+
+        /**
+         * QUEUE 模式下的写入队列配置
+         */
+        private Queue queue = new Queue();
+    }
+
+    @Data
+    public static class Queue {
+
+        /**
+         * 写入线程数，每个队伍固定由其中一个线程写入
+         */
+        private int writerThreads = 4;
+
+        /**
+         * 每个写入线程的队列容量，队列已满时提示稍后重试
+         */
+        private int capacity = 10000;
+
+        /**
+         * 一次组提交最多包含的命令数量
+         */
+        private int maxBatchSize = 64;
+
+        /**
+         * 调用方等待结果的最长时间（毫秒），超时时尚未开始执行的命令被取消，已开始执行的命令继续等待其结果
+         */
+        private long timeoutMillis = 5000;
+
+        /**
+         * 节点数量，队伍按 id 对节点数取模分配给节点
+         */
+        private int nodeCount = 1;
+
+        /**
+         * 本节点的序号，取值 [0, nodeCount)，各节点不能重复
+         */
+        private int nodeIndex = 0;
+
+        /**
+         * 转发命令时等待负责节点确认收到的最长时间（毫秒），超时后在本节点执行
+         */
+        private long remoteAckTimeoutMillis = 1000;
+
+        /**
+         * 本节点处理转发命令的并发数
+         */
+        private int remoteWorkers = 16;
+    }
+}
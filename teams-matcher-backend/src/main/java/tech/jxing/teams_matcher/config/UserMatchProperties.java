@@ -0,0 +1,165 @@
+package tech.jxing.teams_matcher.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import tech.jxing.teams_matcher.model.enums.MatchModeEnum;
+
+/**
+ * 用户匹配配置
+ *
+ * @author JunXing
+ */
+@Configuration
+@ConfigurationProperties(prefix = "teamsmatcher.match")
+@Data
+public class UserMatchProperties {
+
+    /**
+     * 匹配模式，默认精确匹配
+     */
+    private MatchModeEnum mode = MatchModeEnum.EXACT;
+
+    /**
+     * 候选用户数量达到该阈值时才启用并行计算，数量较少时顺序计算更快
+     */
+    private int parallelThreshold = 50000;
+
+    /**
+     * 匹配专用线程池的并行度，默认为 CPU 核数
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 并行计算时每个子任务至少处理的候选用户数量
+     */
+    private int minBatchSize = 4096;
+
+    /**
+     * 是否启用标签层级感知：祖先/子孙标签之间的替换按半个编辑距离计分
+     */
+    private boolean hierarchyAware = true;
+
+    /**
+     * 标签层级的重新加载间隔（毫秒）
+     */
+    private long hierarchyReloadDelay = 600000;
+
+    /**
+     * MinHash/LSH 近似匹配配置
+     */
+    private Lsh lsh = new Lsh();
+
+    /**
+     * HNSW 向量匹配配置
+     */
+    private Hnsw hnsw = new Hnsw();
+
+    /**
+     * 匹配结果预计算配置
+     */
+    private Precompute precompute = new Precompute();
+
+    @Data
+    public static class Precompute {
+
+        /**
+         * 是否启用预计算任务及读取预计算结果
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个用户预计算的匹配用户数量（不小于 /user/match 允许的最大数量）
+         */
+        private int topN = 20;
+
+        /**
+         * 每批处理的用户数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 每次调度最多处理的批数，处理不完的部分由下一次调度从断点继续
+         */
+        private int batchesPerRun = 20;
+
+        /**
+         * 调度间隔（毫秒）
+         */
+        private long fixedDelay = 60000;
+
+        /**
+         * 预计算结果的过期时间上限（小时）。完成过一轮预计算后，过期时间取上一轮耗时加两个调度间隔，
+         * 使结果最多落后一轮；尚未完成过一轮时取该值
+         */
+        private long expireHours = 24;
+    }
+
+    /**
+     * 仅在匹配模式为 LSH 或 evaluationEnabled 时构建索引。
+     * MinHash 签名长度 = bands * rows。
+     * 两个标签集合的 Jaccard 相似度为 s 时，成为候选的概率为 1 - (1 - s^rows)^bands：
+     * 增大 bands 或减小 rows 召回率更高、候选更多（更慢）；反之候选更少、召回率更低
+     */
+    @Data
+    public static class Lsh {
+
+        /**
+         * 分段（桶表）数量
+         */
+        private int bands = 16;
+
+        /**
+         * 每段包含的哈希行数
+         */
+        private int rows = 2;
+
+        /**
+         * 候选用户不足以凑满结果时，是否回退到精确匹配
+         */
+        private boolean fallbackToExact = true;
+
+        /**
+         * 是否在非 LSH 模式下也构建索引，供 /user/match/evaluate 对比 LSH 与精确匹配
+         */
+        private boolean evaluationEnabled = false;
+    }
+
+    /**
+     * 仅在匹配模式为 HNSW 时构建索引。
+     * m 与 efConstruction 越大图质量越高、内存与写入开销越大；efSearch 越大召回率越高、查询越慢
+     */
+    @Data
+    public static class Hnsw {
+
+        /**
+         * 标签向量维度
+         */
+        private int dimension = 64;
+
+        /**
+         * 每个节点的最大连接数（第 0 层为 2m）
+         */
+        private int m = 16;
+
+        /**
+         * 构建时的搜索宽度
+         */
+        private int efConstruction = 100;
+
+        /**
+         * 查询时的搜索宽度
+         */
+        private int efSearch = 64;
+
+        /**
+         * 是否按标签的逆文档频率（IDF）加权，使冷门标签在相似度中占更大比重
+         */
+        private boolean idfWeighting = true;
+
+        /**
+         * 结果不足以凑满时，是否回退到精确匹配
+         */
+        private boolean fallbackToExact = true;
+    }
+}
@@ -0,0 +1,61 @@
+package tech.jxing.teams_matcher.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 推荐用户缓存配置
+ *
+ * @author JunXing
+ */
+@Configuration
+@ConfigurationProperties(prefix = "teamsmatcher.recommend")
+@Data
+public class UserRecommendProperties {
+
+    /**
+     * 是否启用推荐用户缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缓存的有效时间（秒），超过后视为过期，由一个调用方重建
+     */
+    private long expireSeconds = 30;
+
+    /**
+     * 过期后仍可返回旧数据的时间（秒），在此期间请求直接拿到旧数据，由后台重建
+     */
+    private long staleSeconds = 300;
+
+    /**
+     * 有效时间上追加的随机时间上限（秒），避免同时写入的缓存同时过期
+     */
+    private long jitterSeconds = 10;
+
+    /**
+     * 只缓存不超过该页码的分页，更深的分页直接查询数据库
+     */
+    private long maxCachedPageNum = 5;
+
+    /**
+     * 只缓存每页数量不超过该值的分页
+     */
+    private long maxCachedPageSize = 50;
+
+    /**
+     * 重建缓存的分布式互斥锁的持有时间（毫秒），超过后自动释放
+     */
+    private long lockLeaseMillis = 10000;
+
+    /**
+     * 缓存不存在且其他节点正在重建时，等待其写入缓存的最长时间（毫秒），超时后自行查询数据库
+     */
+    private long waitMillis = 300;
+
+    /**
+     * 预热任务缓存首页时的每页数量，与前端首页的请求保持一致
+     */
+    private long precachePageSize = 8;
+}
@@ -10,6 +10,7 @@ import tech.jxing.teams_matcher.common.DeleteRequest;
 import tech.jxing.teams_matcher.common.ErrorCode;
 import tech.jxing.teams_matcher.common.ResultUtils;
 import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.manager.RequestBatchLoaders;
 import tech.jxing.teams_matcher.model.domain.Team;
 import tech.jxing.teams_matcher.model.domain.User;
 import tech.jxing.teams_matcher.model.domain.UserTeam;
@@ -18,6 +19,7 @@ import tech.jxing.teams_matcher.model.request.TeamAddRequest;
 import tech.jxing.teams_matcher.model.request.TeamJoinRequest;
 import tech.jxing.teams_matcher.model.request.TeamQuitRequest;
 import tech.jxing.teams_matcher.model.request.TeamUpdateRequest;
+import tech.jxing.teams_matcher.model.vo.CursorPageVO;
 import tech.jxing.teams_matcher.model.vo.TeamUserVO;
 import tech.jxing.teams_matcher.service.TeamService;
 import tech.jxing.teams_matcher.service.UserService;
@@ -27,8 +29,6 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -153,47 +153,53 @@ public class TeamController {
         }
         // 判断当前用户是否为管理员
         boolean isAdmin = userService.isAdmin(request);
-        // 根据查询条件和用户是否为管理员获取队伍列表
+        // 根据查询条件和用户是否为管理员获取队伍列表（已包含创建者信息和已加入的用户数）
         List<TeamUserVO> teamList = teamService.listTeams(teamQuery, isAdmin);
-        /**
-         * 判断当前用户是否已加入队伍
-         */
-        List<Long> teamIdList = teamList.stream()
-                .map(TeamUserVO::getId)
-                .collect(Collectors.toList());
-        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        // 判断当前用户是否已加入队伍（未登录时均为未加入）；队伍列表缓存为所有用户共享，该标记不进入缓存
         try{
             User loginUser = userService.getLoginUser(request);
-            // 查询条件为
-            userTeamQueryWrapper.eq("userId", loginUser.getId());
-            userTeamQueryWrapper.in("teamId", teamIdList);
-            List<UserTeam> userTeamList = userTeamService.list(userTeamQueryWrapper);
-            // 已加入的队伍Id集合
-            Set<Long> hasJoinTeamIdSet = userTeamList.stream()
-                    .map(UserTeam::getTeamId)
-                    .collect(Collectors.toSet());
-            teamList.forEach(team -> {
-                boolean hasJoin = hasJoinTeamIdSet.contains(team.getId());
-                team.setHasJoin(hasJoin);
-            });
+            fillHasJoin(teamList, loginUser);
         } catch (Exception e) {}
 
-        /**
-         * 查询已加入队伍的人数
-         */
-        QueryWrapper<UserTeam> userTeamJoinQueryWrapper = new QueryWrapper<>();
-        userTeamJoinQueryWrapper.in("teamId", teamIdList);
-        List<UserTeam> userTeamList = userTeamService.list(userTeamJoinQueryWrapper);
-        // 根据队伍Id，把加入这个队伍的用户列表进行分组
-        Map<Long, List<UserTeam>> teamIdUserTeamList = userTeamList.stream()
-                .collect(Collectors.groupingBy(UserTeam::getTeamId));
-        teamList.forEach(team -> {
-            team.setHasJoinNum(teamIdUserTeamList.getOrDefault(team.getId(), new ArrayList<>()).size());
-        });
-
         return ResultUtils.success(teamList);
     }
 
+    /**
+     * 游标分页获取队伍列表（按创建时间倒序）
+     *
+     * @param teamQuery 查询队伍的条件对象，cursor 为上一页返回的 nextCursor，首页不传
+     * @param request HttpServletRequest对象，用于判断当前用户是否为管理员
+     * @return 当前页的队伍列表及下一页的游标
+     */
+    @GetMapping("/list/cursor")
+    public BaseResponse<CursorPageVO<TeamUserVO>> listTeamsByCursor(TeamQuery teamQuery, HttpServletRequest request) {
+        if(teamQuery == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数为空");
+        }
+        boolean isAdmin = userService.isAdmin(request);
+        CursorPageVO<TeamUserVO> cursorPageVO = teamService.listTeamsByCursor(teamQuery, isAdmin);
+        // 判断当前用户是否已加入队伍（未登录时均为未加入）
+        try{
+            User loginUser = userService.getLoginUser(request);
+            fillHasJoin(cursorPageVO.getRecords(), loginUser);
+        } catch (Exception e) {}
+        return ResultUtils.success(cursorPageVO);
+    }
+
+    /**
+     * 判断当前用户是否已加入队伍
+     * 通过批量加载器，用一次查询取出当前用户在这些队伍中的关系
+     *
+     * @param teamList 队伍列表
+     * @param loginUser 当前登录用户
+     */
+    private void fillHasJoin(List<TeamUserVO> teamList, User loginUser) {
+        RequestBatchLoaders requestBatchLoaders = new RequestBatchLoaders(userService, userTeamService);
+        teamList.forEach(team -> requestBatchLoaders.joinedTeamLoader(loginUser.getId())
+                .load(team.getId(), team::setHasJoin));
+        requestBatchLoaders.dispatchAll();
+    }
+
     /**
      * 分页查询队伍列表
      *
@@ -266,6 +272,7 @@ public class TeamController {
         User loginUser = userService.getLoginUser(request);
         teamQuery.setUserId(loginUser.getId());
         List<TeamUserVO> teamList = teamService.listTeams(teamQuery, true);
+        fillHasJoin(teamList, loginUser);
         return ResultUtils.success(teamList);
     }
 
@@ -285,21 +292,23 @@ public class TeamController {
         // 构建查询条件，查询当前用户所有的队伍
         QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("userId", loginUser.getId());
+        queryWrapper.select("teamId");
         List<UserTeam> userTeamList = userTeamService.list(queryWrapper);
         /** 取出不重复的队伍ID */
-        // 将用户队伍列表按队伍ID分组，以便后续处理
-        Map<Long, List<UserTeam>> listMap = userTeamList.stream().collect(Collectors.groupingBy(UserTeam::getTeamId));
-        // 提取分组后的队伍ID列表
-        List<Long> idList = new ArrayList<>(listMap.keySet());
+        List<Long> idList = userTeamList.stream()
+                .map(UserTeam::getTeamId)
+                .distinct()
+                .collect(Collectors.toList());
+        // 未加入任何队伍时直接返回，避免空的 id 列表被当作不限制条件
+        if(idList.isEmpty()) {
+            return ResultUtils.success(new ArrayList<>());
+        }
         // 将队伍ID列表设置到查询条件中
         teamQuery.setIdList(idList);
         // 查询满足条件的队伍列表，包括团队的详细信息
         List<TeamUserVO> teamList = teamService.listTeams(teamQuery, true);
-        // 遍历队伍列表，设置是否已加入字段为true
-        teamList.forEach(team -> {
-            boolean hasJoin = listMap.get(team.getId()).size() > 0;
-            team.setHasJoin(hasJoin);
-        });
+        // 查询的都是当前用户已加入的队伍
+        teamList.forEach(team -> team.setHasJoin(true));
         return ResultUtils.success(teamList);
     }
 }
\ No newline at end of file
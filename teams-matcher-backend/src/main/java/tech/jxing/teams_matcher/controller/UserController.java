@@ -4,24 +4,23 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.*;
 import tech.jxing.teams_matcher.common.BaseResponse;
 import tech.jxing.teams_matcher.common.ErrorCode;
 import tech.jxing.teams_matcher.common.ResultUtils;
+import tech.jxing.teams_matcher.manager.UserRecommendCache;
 import tech.jxing.teams_matcher.model.domain.User;
 import tech.jxing.teams_matcher.model.request.UserLoginRequest;
 import tech.jxing.teams_matcher.model.request.UserRegisterRequest;
 import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.model.vo.MatchEvaluationVO;
 import tech.jxing.teams_matcher.model.vo.UserVO;
 import tech.jxing.teams_matcher.service.UserService;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static tech.jxing.teams_matcher.constant.UserConstant.USER_LOGIN_STATE;
@@ -46,7 +45,7 @@ public class UserController {
     private UserService userService;
 
     @Resource
-    private RedisTemplate<String, Object> redisTemplate;
+    private UserRecommendCache userRecommendCache;
 
     @PostMapping("/register") // 表示将HTTP POST请求映射到处理方法上，处理的路径是"/user/register"。
     public BaseResponse<Long> userRegister(@RequestBody UserRegisterRequest userRegisterRequest){
@@ -183,26 +182,9 @@ public class UserController {
     public BaseResponse<Page<User>> recommendUsers(long pageSize, long pageNum, HttpServletRequest request) {
         // 获取登录用户信息
         User loginUser = userService.getLoginUser(request);
-        // 构造Redis中存储推荐用户列表的键名
-        String redisKey = String.format("teamsmatcher:user:recommend:%s", loginUser.getId());
-        // 从Redis获取推荐用户列表
-        ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
-        Page<User> userPage = (Page<User>) valueOperations.get(redisKey);
-        // 如果Redis中存在推荐用户列表，则直接返回
-        if(userPage != null) {
-            return ResultUtils.success(userPage);
-        }
-
-        // 如果redis中没有缓存，则从数据库中查询推荐用户列表
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        userPage = userService.page(new Page<>(pageNum, pageSize), queryWrapper);
-        try {
-            // 将查询到的推荐用户列表存储到Redis中
-            valueOperations.set(redisKey, userPage, 30000, TimeUnit.MILLISECONDS);
-        } catch (Exception e) {
-            // 记录Redis存储异常日志
-            log.error("redis set key error", e);
-        }
+        // 按用户、页码与每页数量读取缓存，缓存不存在或已过期时只有一个请求查询数据库
+        Page<User> userPage = userRecommendCache.get(loginUser.getId(), pageNum, pageSize,
+                () -> userService.page(new Page<>(pageNum, pageSize), new QueryWrapper<>()));
         // 返回查询到的推荐用户列表
         return ResultUtils.success(userPage);
     }
@@ -255,4 +237,23 @@ public class UserController {
         return ResultUtils.success(userService.matchUsers(num, user));
     }
 
+    /**
+     * 抽样对比 LSH 近似匹配与精确匹配的结果（仅管理员可用，需为 lsh 模式或开启 evaluation-enabled），用于调节召回率与耗时
+     * @param sampleSize 抽样用户数量
+     * @param num 每个用户返回的匹配用户数量
+     * @param request 用户的请求对象，用于判断是否为管理员
+     * @return 对比结果，包括平均召回率、候选数量与两种模式的平均耗时
+     */
+    @GetMapping("/match/evaluate")
+    public BaseResponse<MatchEvaluationVO> evaluateMatch(@RequestParam(defaultValue = "100") int sampleSize,
+                                                         @RequestParam(defaultValue = "20") int num,
+                                                         HttpServletRequest request) {
+        if(!userService.isAdmin(request)) {
+            throw new BusinessException(ErrorCode.NO_AUTH);
+        }
+        if(sampleSize <= 0 || sampleSize > 1000 || num <= 0 || num > 20) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        return ResultUtils.success(userService.evaluateLshMatch(sampleSize, num));
+    }
 }
@@ -0,0 +1,44 @@
+package tech.jxing.teams_matcher.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+import tech.jxing.teams_matcher.utils.TagList;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 标签 JSON 列与 {@link TagList} 之间的类型转换
+ * 在结果映射时把 tags 列解析为驻留后的标签列表，同一个 JSON 只解析一次；
+ * JSON 格式错误时返回 null，不影响整条查询，原始 JSON 仍保留在 tags 字段中
+ *
+ * @author JunXing
+ */
+@MappedTypes(TagList.class)
+@MappedJdbcTypes(JdbcType.VARCHAR)
+public class TagListTypeHandler extends BaseTypeHandler<TagList> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, TagList parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, parameter.getJson());
+    }
+
+    @Override
+    public TagList getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return TagList.tryParse(rs.getString(columnName));
+    }
+
+    @Override
+    public TagList getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return TagList.tryParse(rs.getString(columnIndex));
+    }
+
+    @Override
+    public TagList getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return TagList.tryParse(cs.getString(columnIndex));
+    }
+}
@@ -0,0 +1,173 @@
+package tech.jxing.teams_matcher.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.manager.UserMatchCache;
+import tech.jxing.teams_matcher.manager.UserMatchEngine;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+import tech.jxing.teams_matcher.mapper.UserMapper;
+import tech.jxing.teams_matcher.model.domain.User;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户匹配结果预计算任务
+ * 按用户 id 分批为活跃用户（状态正常且有标签）计算匹配度最高的前 N 个用户，写入 Redis 有序集合。
+ * 每次调度只处理有限的批数，并把处理进度（最后处理的用户 id）保存在 Redis 中，
+ * 下一次调度从断点继续，一轮处理完成后从头开始下一轮。
+ * 每轮的耗时同样保存在 Redis 中，结果的过期时间取上一轮耗时加两个调度间隔（不超过 expireHours），
+ * 没有按时被下一轮重新计算的结果会过期，避免长期返回基于旧标签的匹配结果。
+ * 计算在本任务独占的线程中执行，不占用其他定时任务共用的调度线程；上一次尚未结束时跳过本次调度
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class MatchPreComputeJob {
+
+    private static final String CURSOR_KEY = "teamsmatcher:match:precompute:cursor";
+
+    private static final String ROUND_START_KEY = "teamsmatcher:match:precompute:round:start";
+
+    private static final String ROUND_MILLIS_KEY = "teamsmatcher:match:precompute:round:millis";
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserTagProfileStore userTagProfileStore;
+
+    @Resource
+    private UserMatchEngine userMatchEngine;
+
+    @Resource
+    private UserMatchCache userMatchCache;
+
+    @Resource
+    private UserMatchProperties userMatchProperties;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 预计算线程：只有一个线程且不排队，上一次预计算仍在执行时新的调度被丢弃
+     */
+    private final ExecutorService preComputeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "match-precompute");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @PreDestroy
+    public void destroy() {
+        preComputeExecutor.shutdownNow();
+    }
+
+    /**
+     * 每分钟调度一次，每次最多处理 batchesPerRun 批用户
+     */
+    @Scheduled(fixedDelayString = "${teamsmatcher.match.precompute.fixed-delay:60000}")
+    public void doPreComputeMatch() {
+        if (!userMatchProperties.getPrecompute().isEnabled()) {
+            return;
+        }
+        preComputeExecutor.execute(this::preComputeMatch);
+    }
+
+    private void preComputeMatch() {
+        UserMatchProperties.Precompute precompute = userMatchProperties.getPrecompute();
+        // 分布式锁保证同一时间只有一个实例在预计算
+        RLock lock = redissonClient.getLock("teamsmatcher:match:precompute:lock");
+        try {
+            if (lock.tryLock(0L, -1, TimeUnit.MILLISECONDS)) {
+                RBucket<Long> cursorBucket = redissonClient.getBucket(CURSOR_KEY);
+                RBucket<Long> roundStartBucket = redissonClient.getBucket(ROUND_START_KEY);
+                RBucket<Long> roundMillisBucket = redissonClient.getBucket(ROUND_MILLIS_KEY);
+                long cursor = cursorBucket.get() == null ? 0L : cursorBucket.get();
+                if (cursor == 0L) {
+                    roundStartBucket.set(System.currentTimeMillis());
+                }
+                long expireMillis = resolveExpireMillis(roundMillisBucket.get());
+                for (int i = 0; i < precompute.getBatchesPerRun(); i++) {
+                    List<User> userList = listActiveUsers(cursor, precompute.getBatchSize());
+                    for (User user : userList) {
+                        preComputeUser(user.getId(), precompute.getTopN(), expireMillis);
+                    }
+                    if (userList.size() < precompute.getBatchSize()) {
+                        // 一轮处理完成，记录本轮耗时，下一次调度从头开始
+                        Long roundStart = roundStartBucket.get();
+                        if (roundStart != null) {
+                            roundMillisBucket.set(System.currentTimeMillis() - roundStart);
+                        }
+                        log.info("match precompute round finished");
+                        cursor = 0L;
+                        break;
+                    }
+                    cursor = userList.get(userList.size() - 1).getId();
+                }
+                // 保存断点，服务重启或切换实例后从断点继续
+                cursorBucket.set(cursor);
+            }
+        } catch (InterruptedException e) {
+            log.error("doPreComputeMatch error", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 结果的过期时间：上一轮耗时加两个调度间隔的余量，尚未完成过一轮时取 expireHours
+     */
+    private long resolveExpireMillis(Long lastRoundMillis) {
+        UserMatchProperties.Precompute precompute = userMatchProperties.getPrecompute();
+        long maxExpireMillis = TimeUnit.HOURS.toMillis(precompute.getExpireHours());
+        if (lastRoundMillis == null) {
+            return maxExpireMillis;
+        }
+        return Math.min(lastRoundMillis + 2 * precompute.getFixedDelay(), maxExpireMillis);
+    }
+
+    /**
+     * 按 id 升序查询下一批活跃用户
+     */
+    private List<User> listActiveUsers(long cursor, int batchSize) {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id");
+        queryWrapper.gt("id", cursor);
+        queryWrapper.eq("userStatus", 0);
+        queryWrapper.isNotNull("tags");
+        queryWrapper.orderByAsc("id");
+        queryWrapper.last("limit " + batchSize);
+        return userMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 预计算单个用户的匹配结果
+     */
+    private void preComputeUser(long userId, int topN, long expireMillis) {
+        int[] profile = userTagProfileStore.get(userId);
+        if (profile == null) {
+            return;
+        }
+        try {
+            userMatchCache.put(userId, userMatchEngine.match(profile, userId, topN), expireMillis);
+        } catch (Exception e) {
+            log.error("precompute match error, userId: {}", userId, e);
+        }
+    }
+}
@@ -5,10 +5,10 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.UserRecommendProperties;
+import tech.jxing.teams_matcher.manager.UserRecommendCache;
 import tech.jxing.teams_matcher.model.domain.User;
 import tech.jxing.teams_matcher.service.UserService;
 
@@ -28,7 +28,10 @@ public class PreCacheJob {
     private UserService userService;
 
     @Resource
-    private RedisTemplate<String, Object> redisTemplate;
+    private UserRecommendCache userRecommendCache;
+
+    @Resource
+    private UserRecommendProperties userRecommendProperties;
 
     @Resource
     private RedissonClient redissonClient;
@@ -41,7 +44,7 @@ public class PreCacheJob {
     /**
      * 定时缓存用户推荐信息。
      * 该方法使用CRON表达式每天凌晨3点执行一次，用于批量缓存主要用户的推荐信息，以减少数据库查询压力。
-     * 使用Redis作为缓存存储，缓存有效期为30秒。
+     * 按前端首页的页码与每页数量写入推荐用户缓存，与接口读取的缓存键一致。
      */
     @Scheduled(cron = "0 0 3 * * ?")
     public void doCacheRecommendUse() {
@@ -54,16 +57,10 @@ public class PreCacheJob {
                 for (Long userId : mainUserList) {
                     QueryWrapper<User> queryWrapper = new QueryWrapper<>();
                     // 查询用户，此处示例查询条件为空，实际应用中可根据需求添加
-                    Page<User> userPage = userService.page(new Page<>(1, 20), queryWrapper);
-                    String redisKey = String.format("teamsmatcher:user:recommend:%s", userId);
-                    // 获取Redis的值操作接口
-                    ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
-                    try {
-                        // 将查询到的推荐用户列表缓存在Redis中，设置过期时间为30秒
-                        valueOperations.set(redisKey, userPage, 30000, TimeUnit.MILLISECONDS);
-                    } catch (Exception e) {
-                        log.error("redis set key error", e);
-                    }
+                    long pageSize = userRecommendProperties.getPrecachePageSize();
+                    Page<User> userPage = userService.page(new Page<>(1, pageSize), queryWrapper);
+                    // 写入推荐用户缓存（有效时间带随机值，过期后仍可作为旧数据返回）
+                    userRecommendCache.put(userId, 1, pageSize, userPage);
                 }
             }
         } catch (InterruptedException e) {
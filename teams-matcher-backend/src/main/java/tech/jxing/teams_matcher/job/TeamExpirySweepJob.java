@@ -0,0 +1,69 @@
+package tech.jxing.teams_matcher.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.manager.TeamExpiryScheduler;
+import tech.jxing.teams_matcher.mapper.TeamMapper;
+
+import javax.annotation.Resource;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队伍过期兜底扫描任务
+ * 正常情况下队伍由过期调度器在到期时标记；本任务定时查找已到期但尚未标记的队伍
+ * （例如迁移前创建的队伍、延迟队列中丢失的事件）并补做标记，每次调度只处理有限的数量
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamExpirySweepJob {
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private TeamExpiryScheduler teamExpiryScheduler;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Scheduled(fixedDelayString = "${teamsmatcher.team.expiry.sweep-fixed-delay:60000}")
+    public void doSweep() {
+        TeamProperties.Expiry expiry = teamProperties.getExpiry();
+        if (!expiry.isEnabled()) {
+            return;
+        }
+        // 分布式锁保证同一时间只有一个实例在扫描
+        RLock lock = redissonClient.getLock("teamsmatcher:team:expiry:sweep:lock");
+        try {
+            if (lock.tryLock(0L, -1, TimeUnit.MILLISECONDS)) {
+                List<Long> teamIdList = teamMapper.selectExpiredTeamIds(new Date(), expiry.getSweepBatchSize());
+                int expiredCount = 0;
+                for (Long teamId : teamIdList) {
+                    if (teamExpiryScheduler.expire(teamId)) {
+                        expiredCount++;
+                    }
+                }
+                if (expiredCount > 0) {
+                    log.info("expired teams swept: {}", expiredCount);
+                }
+            }
+        } catch (InterruptedException e) {
+            log.error("doSweep error", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+}
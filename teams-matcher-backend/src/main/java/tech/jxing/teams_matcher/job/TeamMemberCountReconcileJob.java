@@ -0,0 +1,105 @@
+package tech.jxing.teams_matcher.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.manager.TeamListCache;
+import tech.jxing.teams_matcher.mapper.TeamMapper;
+import tech.jxing.teams_matcher.model.domain.Team;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队伍已加入用户数校正任务
+ * 以 user_team 表为准，按队伍 id 分批查找 team.memberCount 与实际成员数不一致的队伍并重新统计。
+ * 每次调度只处理有限的批数，处理进度保存在 Redis 中，一轮处理完成后从头开始下一轮
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamMemberCountReconcileJob {
+
+    private static final String CURSOR_KEY = "teamsmatcher:team:member-count:reconcile:cursor";
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private TeamListCache teamListCache;
+
+    @Scheduled(fixedDelayString = "${teamsmatcher.team.reconcile.fixed-delay:300000}")
+    public void doReconcile() {
+        TeamProperties.Reconcile reconcile = teamProperties.getReconcile();
+        if (!reconcile.isEnabled()) {
+            return;
+        }
+        // 分布式锁保证同一时间只有一个实例在校正
+        RLock lock = redissonClient.getLock("teamsmatcher:team:member-count:reconcile:lock");
+        try {
+            if (lock.tryLock(0L, -1, TimeUnit.MILLISECONDS)) {
+                RBucket<Long> cursorBucket = redissonClient.getBucket(CURSOR_KEY);
+                long cursor = cursorBucket.get() == null ? 0L : cursorBucket.get();
+                for (int i = 0; i < reconcile.getBatchesPerRun(); i++) {
+                    List<Team> teamList = listTeamIds(cursor, reconcile.getBatchSize());
+                    if (!teamList.isEmpty()) {
+                        long toId = teamList.get(teamList.size() - 1).getId();
+                        repairRange(cursor, toId);
+                        cursor = toId;
+                    }
+                    if (teamList.size() < reconcile.getBatchSize()) {
+                        // 一轮处理完成，下一次调度从头开始
+                        cursor = 0L;
+                        break;
+                    }
+                }
+                cursorBucket.set(cursor);
+            }
+        } catch (InterruptedException e) {
+            log.error("doReconcile error", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 按 id 升序查询下一批队伍 id
+     */
+    private List<Team> listTeamIds(long cursor, int batchSize) {
+        QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id");
+        queryWrapper.gt("id", cursor);
+        queryWrapper.orderByAsc("id");
+        queryWrapper.last("limit " + batchSize);
+        return teamMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 校正 id 在 (fromId, toId] 范围内的队伍
+     */
+    private void repairRange(long fromId, long toId) {
+        List<Long> driftTeamIdList = teamMapper.selectMemberCountDriftTeamIds(fromId, toId);
+        if (!driftTeamIdList.isEmpty()) {
+            // 一批最多 batchSize 个队伍，用一条 UPDATE 重新统计
+            teamMapper.repairMemberCount(driftTeamIdList);
+            log.warn("team member count repaired, teamIds: {}", driftTeamIdList);
+            // 缓存的队伍列表中的已加入用户数随之失效
+            teamListCache.invalidate();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package tech.jxing.teams_matcher.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.TagSearchProperties;
+import tech.jxing.teams_matcher.mapper.UserMapper;
+import tech.jxing.teams_matcher.model.domain.User;
+import tech.jxing.teams_matcher.service.UserTagService;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * user_tag 关系表回填与校正任务
+ * 按用户 id 分批读取 user.tags，与 user_tag 关系表比对后只增删有差异的关系，已删除用户的关系全部删除。
+ * 每次调度只处理有限的批数，处理进度（最后处理的用户 id）保存在 Redis 中，
+ * 一轮处理完成后从头开始下一轮：首轮完成回填，之后持续修复双写失败遗留的差异
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserTagBackfillJob {
+
+    private static final String CURSOR_KEY = "teamsmatcher:user-tag:backfill:cursor";
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserTagService userTagService;
+
+    @Resource
+    private TagSearchProperties tagSearchProperties;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Scheduled(fixedDelayString = "${teamsmatcher.tag-search.backfill.fixed-delay:60000}")
+    public void doBackfill() {
+        TagSearchProperties.Backfill backfill = tagSearchProperties.getBackfill();
+        if (!backfill.isEnabled()) {
+            return;
+        }
+        // 分布式锁保证同一时间只有一个实例在回填
+        RLock lock = redissonClient.getLock("teamsmatcher:user-tag:backfill:lock");
+        try {
+            if (lock.tryLock(0L, -1, TimeUnit.MILLISECONDS)) {
+                RBucket<Long> cursorBucket = redissonClient.getBucket(CURSOR_KEY);
+                long cursor = cursorBucket.get() == null ? 0L : cursorBucket.get();
+                for (int i = 0; i < backfill.getBatchesPerRun(); i++) {
+                    List<User> userList = userMapper.selectTagsAfterId(cursor, backfill.getBatchSize());
+                    for (User user : userList) {
+                        backfillUser(user);
+                    }
+                    if (userList.size() < backfill.getBatchSize()) {
+                        // 一轮处理完成，下一次调度从头开始
+                        log.info("user tag backfill round finished");
+                        cursor = 0L;
+                        break;
+                    }
+                    cursor = userList.get(userList.size() - 1).getId();
+                }
+                cursorBucket.set(cursor);
+            }
+        } catch (InterruptedException e) {
+            log.error("doBackfill error", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 回填单个用户的标签关系，单个用户失败不影响整批；重复执行结果不变
+     */
+    private void backfillUser(User user) {
+        try {
+            if (user.getIsDelete() != null && user.getIsDelete() == 1) {
+                userTagService.removeUserTags(user.getId());
+            } else {
+                userTagService.syncUserTags(user.getId(), user.getTags());
+            }
+        } catch (Exception e) {
+            log.error("backfill user tag error, userId: {}", user.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import tech.jxing.teams_matcher.model.domain.User;
+import tech.jxing.teams_matcher.model.domain.UserTeam;
+import tech.jxing.teams_matcher.service.UserService;
+import tech.jxing.teams_matcher.service.UserTeamService;
+import tech.jxing.teams_matcher.utils.BatchLoader;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 请求级批量加载器
+ * 每次组装队伍列表时创建一个实例，收集需要的用户与用户队伍关系，
+ * 每类数据只用一次 IN 查询加载，结果在本次调用内复用，避免逐条查询（N+1）。
+ * 不依赖 HTTP 请求作用域，定时任务、异步线程与测试中同样可用
+ *
+ * @author JunXing
+ */
+public class RequestBatchLoaders {
+
+    /**
+     * 单次 IN 查询的最大 id 数量
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final UserService userService;
+
+    private final UserTeamService userTeamService;
+
+    private BatchLoader<Long, User> userLoader;
+
+    /**
+     * 用户 id -> 该用户的已加入队伍加载器
+     */
+    private final Map<Long, BatchLoader<Long, Boolean>> joinedTeamLoaders = new HashMap<>();
+
+    public RequestBatchLoaders(UserService userService, UserTeamService userTeamService) {
+        this.userService = userService;
+        this.userTeamService = userTeamService;
+    }
+
+    /**
+     * 用户 id -> 用户
+     */
+    public BatchLoader<Long, User> userLoader() {
+        if (userLoader == null) {
+            userLoader = new BatchLoader<>(userIds -> userService.listByIds(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity())), null, MAX_BATCH_SIZE);
+        }
+        return userLoader;
+    }
+
+    /**
+     * 队伍 id -> 指定用户是否已加入该队伍
+     *
+     * @param userId 用户 id
+     */
+    public BatchLoader<Long, Boolean> joinedTeamLoader(long userId) {
+        return joinedTeamLoaders.computeIfAbsent(userId, key -> new BatchLoader<>(
+                teamIds -> listJoinedTeamIds(userId, teamIds), false, MAX_BATCH_SIZE));
+    }
+
+    /**
+     * 加载所有已登记的数据
+     */
+    public void dispatchAll() {
+        userLoader().dispatch();
+        joinedTeamLoaders.values().forEach(BatchLoader::dispatch);
+    }
+
+    private Map<Long, Boolean> listJoinedTeamIds(long userId, Collection<Long> teamIds) {
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("teamId");
+        queryWrapper.eq("userId", userId);
+        queryWrapper.in("teamId", teamIds);
+        return userTeamService.list(queryWrapper).stream()
+                .collect(Collectors.toMap(UserTeam::getTeamId, userTeam -> true, (a, b) -> a));
+    }
+}
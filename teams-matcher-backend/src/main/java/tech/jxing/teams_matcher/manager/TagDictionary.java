@@ -0,0 +1,137 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.mapper.TagMapper;
+import tech.jxing.teams_matcher.model.domain.Tag;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签字典
+ * 为每个不同的标签名分配一个稳定的整数 id（从 0 开始连续递增），
+ * 启动时按 tag 表的顺序预先分配，之后遇到新标签时再追加分配。
+ * 匹配算法基于整数 id 比较标签，避免字符串哈希与比较的开销
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TagDictionary {
+
+    /**
+     * 未登记标签的 id
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    @Resource
+    private TagMapper tagMapper;
+
+    /**
+     * 标签名 -> 标签 id
+     */
+    private final ConcurrentHashMap<String, Integer> idByName = new ConcurrentHashMap<>();
+
+    /**
+     * 标签 id -> 标签名，仅在持有锁时写入
+     */
+    private volatile String[] nameById = new String[256];
+
+    private int size = 0;
+
+    /**
+     * 启动时使用 tag 表中已有的标签初始化字典
+     */
+    @PostConstruct
+    public void init() {
+        QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagName");
+        queryWrapper.orderByAsc("id");
+        List<Tag> tagList = tagMapper.selectList(queryWrapper);
+        for (Tag tag : tagList) {
+            if (StringUtils.isNotBlank(tag.getTagName())) {
+                getOrCreateId(tag.getTagName());
+            }
+        }
+        log.info("tag dictionary initialized, size: {}", size());
+    }
+
+    /**
+     * 获取标签 id，标签不存在时为其分配新的 id
+     *
+     * @param tagName 标签名
+     * @return 标签 id
+     */
+    public int getOrCreateId(String tagName) {
+        Integer id = idByName.get(tagName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idByName.get(tagName);
+            if (id != null) {
+                return id;
+            }
+            int newId = size;
+            if (newId == nameById.length) {
+                nameById = Arrays.copyOf(nameById, newId * 2);
+            }
+            nameById[newId] = tagName;
+            size = newId + 1;
+            idByName.put(tagName, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * 获取标签 id，不会分配新的 id
+     *
+     * @param tagName 标签名
+     * @return 标签 id，标签不存在时返回 {@link #UNKNOWN_ID}
+     */
+    public int getId(String tagName) {
+        Integer id = idByName.get(tagName);
+        return id == null ? UNKNOWN_ID : id;
+    }
+
+    /**
+     * 根据标签 id 获取标签名
+     *
+     * @param id 标签 id
+     * @return 标签名，id 不存在时返回 null
+     */
+    public String getName(int id) {
+        String[] names = nameById;
+        return id >= 0 && id < names.length ? names[id] : null;
+    }
+
+    /**
+     * 将标签名列表编码为标签 id 数组（保持原有顺序）
+     *
+     * @param tagNameList 标签名列表
+     * @return 标签 id 数组
+     */
+    public int[] encode(List<String> tagNameList) {
+        if (tagNameList == null || tagNameList.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = new int[tagNameList.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = getOrCreateId(StringUtils.defaultString(tagNameList.get(i)));
+        }
+        return ids;
+    }
+
+    /**
+     * 当前已分配的标签数量
+     */
+    public int size() {
+        return idByName.size();
+    }
+}
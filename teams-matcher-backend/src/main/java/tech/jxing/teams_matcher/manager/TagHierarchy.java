@@ -0,0 +1,97 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.mapper.TagMapper;
+import tech.jxing.teams_matcher.model.domain.Tag;
+import tech.jxing.teams_matcher.utils.TagClosure;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签层级
+ * 读取 tag 表的 parentId 构建标签树，换算为标签字典 id 后预先计算层级闭包，
+ * 供匹配（祖先/子孙标签视为部分匹配）与标签搜索（按子孙标签扩展）使用。
+ * 闭包不可变，重新加载时整体替换
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TagHierarchy {
+
+    @Resource
+    private TagMapper tagMapper;
+
+    @Resource
+    private TagDictionary tagDictionary;
+
+    private volatile TagClosure closure = TagClosure.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 定时重新加载标签树，默认每 10 分钟一次
+     */
+    @Scheduled(initialDelayString = "${teamsmatcher.match.hierarchy-reload-delay:600000}",
+            fixedDelayString = "${teamsmatcher.match.hierarchy-reload-delay:600000}")
+    public void reload() {
+        QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagName", "parentId");
+        List<Tag> tagList = tagMapper.selectList(queryWrapper);
+        // tag 表 id -> 标签字典 id
+        Map<Long, Integer> dictionaryIdByRowId = new HashMap<>(tagList.size() * 2);
+        List<Tag> validTagList = new ArrayList<>(tagList.size());
+        for (Tag tag : tagList) {
+            if (StringUtils.isNotBlank(tag.getTagName())) {
+                dictionaryIdByRowId.put(tag.getId(), tagDictionary.getOrCreateId(tag.getTagName()));
+                validTagList.add(tag);
+            }
+        }
+        int[] parent = new int[tagDictionary.size()];
+        Arrays.fill(parent, -1);
+        int edgeCount = 0;
+        for (Tag tag : validTagList) {
+            Integer parentId = tag.getParentId() == null ? null : dictionaryIdByRowId.get(tag.getParentId());
+            if (parentId != null) {
+                parent[dictionaryIdByRowId.get(tag.getId())] = parentId;
+                edgeCount++;
+            }
+        }
+        closure = TagClosure.build(parent);
+        log.info("tag hierarchy loaded, tags: {}, edges: {}", parent.length, edgeCount);
+    }
+
+    /**
+     * 获取当前的标签层级闭包
+     */
+    public TagClosure closure() {
+        return closure;
+    }
+
+    /**
+     * 获取标签及其全部子孙标签的 id
+     *
+     * @param tagId 标签 id
+     * @return 第一个元素为标签自身，其后为子孙标签
+     */
+    public int[] selfAndDescendants(int tagId) {
+        int[] descendants = closure.descendants(tagId);
+        int[] result = new int[descendants.length + 1];
+        result[0] = tagId;
+        System.arraycopy(descendants, 0, result, 1, descendants.length);
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBlockingQueue;
+import org.redisson.api.RDelayedQueue;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.mapper.TeamMapper;
+import tech.jxing.teams_matcher.utils.TransactionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队伍过期调度器
+ * 创建队伍或修改过期时间后，将队伍 id 放入 Redisson 延迟队列，到达过期时间时转入阻塞队列，
+ * 由各节点的消费线程取出后将队伍标记为已过期，并从搜索索引与列表缓存中移除。
+ * 标记语句会再次比较过期时间，过期时间被延后时旧的到期事件不会生效，因此重复或过时的事件都是无害的。
+ * 事件丢失（Redis 数据丢失、消费中途宕机）时由定时扫描任务兜底
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamExpiryScheduler {
+
+    private static final String QUEUE_KEY = "teamsmatcher:team:expiry:queue";
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private TeamSearchIndex teamSearchIndex;
+
+    @Resource
+    private TeamListCache teamListCache;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    private RBlockingQueue<Long> expiredQueue;
+
+    private RDelayedQueue<Long> delayedQueue;
+
+    private Thread consumer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        if (!teamProperties.getExpiry().isEnabled()) {
+            return;
+        }
+        expiredQueue = redissonClient.getBlockingQueue(QUEUE_KEY);
+        // 创建延迟队列后，本节点会定时将到期的元素转入阻塞队列
+        delayedQueue = redissonClient.getDelayedQueue(expiredQueue);
+        running = true;
+        consumer = new Thread(this::consume, "team-expiry-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+        }
+        if (delayedQueue != null) {
+            delayedQueue.destroy();
+        }
+    }
+
+    /**
+     * 登记队伍的过期时间；处于事务中时推迟到事务提交之后登记
+     *
+     * @param teamId 队伍 id
+     * @param expireTime 过期时间，为 null 时表示永不过期
+     */
+    public void schedule(long teamId, Date expireTime) {
+        if (!teamProperties.getExpiry().isEnabled() || expireTime == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            long delay = expireTime.getTime() - System.currentTimeMillis();
+            if (delay <= 0) {
+                expire(teamId);
+                return;
+            }
+            try {
+                delayedQueue.offer(teamId, delay, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // 登记失败时由定时扫描任务兜底
+                log.error("schedule team expiry error, teamId: {}", teamId, e);
+            }
+        });
+    }
+
+    /**
+     * 将已到达过期时间的队伍标记为已过期，并从搜索索引与列表缓存中移除
+     *
+     * @param teamId 队伍 id
+     * @return 是否标记成功（未到期、已标记或已删除时为 false）
+     */
+    public boolean expire(long teamId) {
+        if (teamMapper.markExpired(teamId, new Date()) == 0) {
+            return false;
+        }
+        teamSearchIndex.reindex(teamId);
+        teamListCache.invalidate();
+        return true;
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                Long teamId = expiredQueue.poll(1, TimeUnit.SECONDS);
+                if (teamId != null) {
+                    expire(teamId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("consume team expiry error", e);
+                try {
+                    TimeUnit.SECONDS.sleep(1);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
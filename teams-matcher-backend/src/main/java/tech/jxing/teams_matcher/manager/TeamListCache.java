@@ -0,0 +1,150 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.model.dto.TeamQuery;
+import tech.jxing.teams_matcher.model.enums.TeamStatusEnum;
+import tech.jxing.teams_matcher.model.vo.TeamUserVO;
+import tech.jxing.teams_matcher.utils.TransactionUtils;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 队伍列表缓存
+ * 以规范化后的查询条件为键缓存 listTeams 的结果，键中带有全局版本号：
+ * 任何修改队伍的操作提交后将版本号加一，旧版本的缓存不会再被读取，无需扫描或逐个删除键，由过期时间自然回收。
+ * 缓存的是所有用户共享的列表，“当前用户是否已加入”由调用方在读出后单独填充。
+ * 缓存的过期时间不超过列表中最早过期队伍的剩余时间，队伍过期后不会继续出现在缓存的列表中
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamListCache {
+
+    private static final String VERSION_KEY = "teamsmatcher:team:list:version";
+
+    private static final String KEY_PREFIX = "teamsmatcher:team:list:";
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    /**
+     * 读取缓存的队伍列表，未命中时查询并写入缓存
+     *
+     * @param teamQuery 查询条件
+     * @param isAdmin 是否为管理员
+     * @param loader 查询数据库的方法
+     * @return 队伍列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<TeamUserVO> get(TeamQuery teamQuery, boolean isAdmin, Supplier<List<TeamUserVO>> loader) {
+        if (!teamProperties.getListCache().isEnabled()) {
+            return loader.get();
+        }
+        String key;
+        try {
+            // 先读版本号再查询数据库：查询期间版本号被修改时，结果写入的是已作废的旧版本键
+            key = buildKey(currentVersion(), teamQuery, isAdmin);
+            Object cached = redisTemplate.opsForValue().get(key);
+            if (cached instanceof List) {
+                return (List<TeamUserVO>) cached;
+            }
+        } catch (Exception e) {
+            log.error("redis get team list cache error", e);
+            return loader.get();
+        }
+        List<TeamUserVO> teamList = loader.get();
+        long expireMillis = expireMillis(teamList);
+        if (expireMillis > 0) {
+            try {
+                redisTemplate.opsForValue().set(key, new ArrayList<>(teamList), expireMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.error("redis set team list cache error", e);
+            }
+        }
+        return teamList;
+    }
+
+    /**
+     * 使全部队伍列表缓存失效；处于事务中时推迟到事务提交之后执行，避免提交前被重新缓存旧数据
+     */
+    public void invalidate() {
+        TransactionUtils.afterCommit(this::bumpVersion);
+    }
+
+    private void bumpVersion() {
+        try {
+            stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        } catch (Exception e) {
+            log.error("redis bump team list version error", e);
+        }
+    }
+
+    private String currentVersion() {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        return version == null ? "0" : version;
+    }
+
+    /**
+     * 缓存过期时间：配置的过期时间与列表中最早过期队伍的剩余时间取较小值
+     */
+    private long expireMillis(List<TeamUserVO> teamList) {
+        long expireMillis = TimeUnit.SECONDS.toMillis(teamProperties.getListCache().getExpireSeconds());
+        long now = System.currentTimeMillis();
+        for (TeamUserVO team : teamList) {
+            if (team.getExpireTime() != null) {
+                expireMillis = Math.min(expireMillis, team.getExpireTime().getTime() - now);
+            }
+        }
+        return expireMillis;
+    }
+
+    /**
+     * 规范化查询条件：与查询结果无关的字段（分页参数）不参与，无效值与空白字符串按未指定处理，id 列表排序去重，
+     * 未指定状态时按公开处理，再取摘要作为键。
+     * 文本字段可能包含分隔符，带上长度前缀，不同的字段组合不会拼接出相同的字符串
+     */
+    private static String buildKey(String version, TeamQuery teamQuery, boolean isAdmin) {
+        StringBuilder builder = new StringBuilder().append(isAdmin ? 'A' : 'U');
+        if (teamQuery != null) {
+            TeamStatusEnum statusEnum = TeamStatusEnum.getEnumByValue(teamQuery.getStatus());
+            builder.append('|').append(positiveOrNull(teamQuery.getId()))
+                    .append('|').append(teamQuery.getIdList() == null ? "" : new TreeSet<>(teamQuery.getIdList()))
+                    .append('|').append(lengthPrefixed(teamQuery.getName()))
+                    .append('|').append(lengthPrefixed(teamQuery.getDescription()))
+                    .append('|').append(lengthPrefixed(teamQuery.getSearchText()))
+                    .append('|').append(positiveOrNull(teamQuery.getMaxNum()))
+                    .append('|').append(positiveOrNull(teamQuery.getUserId()))
+                    .append('|').append((statusEnum == null ? TeamStatusEnum.PUBLIC_STATUS : statusEnum).getValue());
+        }
+        String digest = DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+        return KEY_PREFIX + version + ":" + digest;
+    }
+
+    private static String lengthPrefixed(String text) {
+        String value = StringUtils.isBlank(text) ? "" : text;
+        return value.length() + ":" + value;
+    }
+
+    private static Number positiveOrNull(Number value) {
+        return value != null && value.longValue() > 0 ? value : null;
+    }
+}
@@ -0,0 +1,209 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.mapper.TeamMapper;
+import tech.jxing.teams_matcher.model.domain.Team;
+import tech.jxing.teams_matcher.model.enums.TeamSearchModeEnum;
+import tech.jxing.teams_matcher.utils.NgramIndex;
+import tech.jxing.teams_matcher.utils.TransactionUtils;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 队伍名称与描述的全文索引
+ * 应用启动完成后在后台线程中按 id 分批加载全部未过期的队伍构建 n-gram 索引，构建完成前调用方改用数据库模糊匹配；
+ * 本节点的创建、修改、删除、过期在事务提交后同步更新索引，其他节点的变更按 updateTime 定时增量同步。
+ * 搜索只返回按相关度排序的队伍 id，由调用方批量回表，状态等过滤条件仍在数据库中完成。
+ * 仅在队伍搜索模式为 INDEX 时构建
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamSearchIndex {
+
+    /**
+     * 名称命中的权重高于描述
+     */
+    private static final float NAME_BOOST = 3f;
+
+    private static final float DESCRIPTION_BOOST = 1f;
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    /**
+     * 增量同步向前多取的时间（毫秒），吸收节点间时钟偏差、秒级 updateTime 与事务提交延迟
+     */
+    private static final long SYNC_OVERLAP_MILLIS = 60000;
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    private final NgramIndex ngramIndex = new NgramIndex(NAME_BOOST, DESCRIPTION_BOOST);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 已同步到的时间点
+     */
+    private volatile Date syncedTime;
+
+    /**
+     * 索引是否已构建完成
+     */
+    private volatile boolean ready;
+
+    /**
+     * 应用启动完成后在后台构建索引，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::build, "team-search-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 按 id 分批加载全部未过期的队伍。构建期间本节点的变更照常写入索引，
+     * 构建完成后的第一次增量同步从构建开始时间起补齐期间被旧数据覆盖的队伍
+     */
+    private void build() {
+        long start = System.currentTimeMillis();
+        syncedTime = new Date(start);
+        long lastId = 0;
+        try {
+            while (true) {
+                QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id", "name", "description");
+                queryWrapper.eq("isExpired", 0);
+                queryWrapper.gt("id", lastId);
+                queryWrapper.orderByAsc("id");
+                queryWrapper.last("limit " + LOAD_BATCH_SIZE);
+                List<Team> teamList = teamMapper.selectList(queryWrapper);
+                if (teamList.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    teamList.forEach(this::putUnderLock);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                lastId = teamList.get(teamList.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("team search index build error, search falls back to database", e);
+            return;
+        }
+        ready = true;
+        log.info("team search index built, teams: {}, cost: {} ms", ngramIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isEnabled() {
+        return TeamSearchModeEnum.INDEX.equals(teamProperties.getSearch().getMode());
+    }
+
+    /**
+     * 索引是否可用于搜索：已启用且已构建完成
+     */
+    public boolean isReady() {
+        return ready && isEnabled();
+    }
+
+    /**
+     * 按关键词搜索队伍
+     *
+     * @param searchText 关键词
+     * @param limit 最多返回的队伍数量
+     * @return 按相关度从高到低排列的队伍 id
+     */
+    public List<Long> search(String searchText, int limit) {
+        if (!isReady()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            // 结果数量不会超过索引中的文档数量，避免按过大的 limit 分配空间
+            return ngramIndex.search(searchText, Math.min(limit, ngramIndex.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按数据库中的最新数据重建单个队伍的索引；处于事务中时推迟到事务提交之后执行，回滚则不更新
+     *
+     * @param teamId 队伍 id
+     */
+    public void reindex(long teamId) {
+        if (!isEnabled()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> reindexNow(teamId));
+    }
+
+    /**
+     * 定时同步其他节点的变更（包括删除与过期）
+     */
+    @Scheduled(initialDelayString = "${teamsmatcher.team.search.refresh-delay:5000}",
+            fixedDelayString = "${teamsmatcher.team.search.refresh-delay:5000}")
+    public void refresh() {
+        if (!isReady()) {
+            return;
+        }
+        Date now = new Date();
+        List<Team> teamList = teamMapper.selectSearchFieldsUpdatedSince(
+                new Date(syncedTime.getTime() - SYNC_OVERLAP_MILLIS));
+        lock.writeLock().lock();
+        try {
+            teamList.forEach(this::putUnderLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        syncedTime = now;
+    }
+
+    private void reindexNow(long teamId) {
+        // selectById 带逻辑删除条件，已删除的队伍查不到
+        Team team = teamMapper.selectById(teamId);
+        lock.writeLock().lock();
+        try {
+            if (team == null) {
+                ngramIndex.remove(teamId);
+            } else {
+                putUnderLock(team);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入或移除队伍（已删除或已过期的队伍从索引中移除），调用方需持有写锁
+     */
+    private void putUnderLock(Team team) {
+        boolean deleted = team.getIsDelete() != null && team.getIsDelete() == 1;
+        boolean expired = team.getIsExpired() != null && team.getIsExpired() == 1;
+        if (deleted || expired) {
+            ngramIndex.remove(team.getId());
+        } else {
+            ngramIndex.put(team.getId(), team.getName(), team.getDescription());
+        }
+    }
+}
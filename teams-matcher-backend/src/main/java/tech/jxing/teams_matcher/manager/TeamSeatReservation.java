@@ -0,0 +1,179 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.common.ErrorCode;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.mapper.UserTeamMapper;
+import tech.jxing.teams_matcher.model.domain.Team;
+import tech.jxing.teams_matcher.model.domain.UserTeam;
+import tech.jxing.teams_matcher.utils.TransactionUtils;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 队伍名额预占
+ * 在 Redis 中维护每个用户已加入的队伍集合与每个队伍已占用的名额，
+ * 加入队伍时由一个 Lua 脚本原子地完成重复加入、加入数量上限与满员校验并预占名额，一次往返即可，
+ * 预占成功后调用方再写入数据库，写入失败时释放名额。
+ * Redis 中的数据只是数据库的预检视图：键不存在时从数据库加载，其他修改成员关系的操作提交后同步释放或删除对应的键，
+ * 键在一段时间没有加入操作后过期，异常中断遗留的偏差随之消除；满员与否最终仍以数据库中的条件更新为准。
+ * 一个脚本同时操作用户键与队伍键，要求 Redis 为单节点或主从部署
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamSeatReservation {
+
+    /**
+     * 用户最多创建和加入的队伍数量
+     */
+    public static final int MAX_JOIN_NUM = 5;
+
+    private static final String USER_TEAMS_KEY_PREFIX = "teamsmatcher:team:seat:user:";
+
+    private static final String TEAM_SEATS_KEY_PREFIX = "teamsmatcher:team:seat:team:";
+
+    /**
+     * 用户集合中的占位成员，表示集合已从数据库加载（Redis 不保存空集合）
+     */
+    private static final String LOADED_MARKER = "0";
+
+    private static final RedisScript<Long> RESERVE_SCRIPT = script("lua/team_seat_reserve.lua");
+
+    private static final RedisScript<Long> LOAD_USER_SCRIPT = script("lua/team_seat_load_user.lua");
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = script("lua/team_seat_release.lua");
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private UserTeamMapper userTeamMapper;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    /**
+     * 为用户预占队伍名额
+     *
+     * @param userId 用户 id
+     * @param team 队伍（需包含 id、maxNum 与 memberCount）
+     * @throws BusinessException 已加入该队伍、加入的队伍数量已达上限或队伍已满时抛出
+     */
+    public void reserve(long userId, Team team) {
+        List<String> keys = Arrays.asList(userTeamsKey(userId), teamSeatsKey(team.getId()));
+        String ttl = String.valueOf(teamProperties.getJoin().getReservationTtlMillis());
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys, String.valueOf(team.getId()),
+                    String.valueOf(team.getMaxNum()), String.valueOf(team.getMemberCount()),
+                    String.valueOf(MAX_JOIN_NUM), ttl);
+            if (result == null) {
+                break;
+            }
+            switch (result.intValue()) {
+                case 0:
+                    return;
+                case -1:
+                    // 用户集合未加载，从数据库加载后重试一次
+                    loadUser(userId);
+                    continue;
+                case 1:
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍");
+                case 2:
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入" + MAX_JOIN_NUM + "个队伍");
+                case 3:
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
+                default:
+                    break;
+            }
+        }
+        throw new BusinessException(ErrorCode.SYSTEM_ERROR, "预占队伍名额失败");
+    }
+
+    /**
+     * 释放名额：用户退出队伍（事务提交后）或预占后写入数据库失败时调用
+     *
+     * @param userId 用户 id
+     * @param teamId 队伍 id
+     */
+    public void release(long userId, long teamId) {
+        TransactionUtils.afterCommit(() -> {
+            try {
+                stringRedisTemplate.execute(RELEASE_SCRIPT, Arrays.asList(userTeamsKey(userId), teamSeatsKey(teamId)),
+                        String.valueOf(teamId));
+            } catch (Exception e) {
+                log.error("release team seat error, userId: {}, teamId: {}", userId, teamId, e);
+            }
+        });
+    }
+
+    /**
+     * 删除用户已加入的队伍集合（事务提交后），下次加入时从数据库重新加载
+     *
+     * @param userId 用户 id
+     */
+    public void evictUser(long userId) {
+        evict(userTeamsKey(userId));
+    }
+
+    /**
+     * 删除队伍已占用的名额（事务提交后），下次加入时按数据库中的成员数重新初始化
+     *
+     * @param teamId 队伍 id
+     */
+    public void evictTeam(long teamId) {
+        evict(teamSeatsKey(teamId));
+    }
+
+    private void evict(String key) {
+        TransactionUtils.afterCommit(() -> {
+            try {
+                stringRedisTemplate.delete(key);
+            } catch (Exception e) {
+                log.error("evict team seat key error, key: {}", key, e);
+            }
+        });
+    }
+
+    private void loadUser(long userId) {
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("teamId");
+        queryWrapper.eq("userId", userId);
+        List<UserTeam> userTeamList = userTeamMapper.selectList(queryWrapper);
+        List<String> args = new ArrayList<>(userTeamList.size() + 2);
+        args.add(String.valueOf(teamProperties.getJoin().getReservationTtlMillis()));
+        args.add(LOADED_MARKER);
+        for (UserTeam userTeam : userTeamList) {
+            args.add(String.valueOf(userTeam.getTeamId()));
+        }
+        stringRedisTemplate.execute(LOAD_USER_SCRIPT, Collections.singletonList(userTeamsKey(userId)), args.toArray());
+    }
+
+    private static String userTeamsKey(long userId) {
+        return USER_TEAMS_KEY_PREFIX + userId;
+    }
+
+    private static String teamSeatsKey(long teamId) {
+        return TEAM_SEATS_KEY_PREFIX + teamId;
+    }
+
+    private static RedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        redisScript.setResultType(Long.class);
+        return redisScript;
+    }
+}
@@ -0,0 +1,373 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RRemoteService;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RemoteInvocationOptions;
+import org.redisson.codec.SerializationCodec;
+import org.redisson.remote.RemoteServiceAckTimeoutException;
+import org.redisson.remote.RemoteServiceTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jxing.teams_matcher.common.BaseResponse;
+import tech.jxing.teams_matcher.common.ErrorCode;
+import tech.jxing.teams_matcher.common.ResultUtils;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.model.dto.TeamWriteCommand;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 队伍写入队列
+ * 加入、退出队伍的命令按队伍 id 分配给固定的写入线程，同一队伍的命令总是由同一个线程按到达顺序执行，
+ * 热门队伍的并发请求在队列中排队，不再争抢锁。写入线程每次取出队列中积压的一批命令，
+ * 在一个事务中依次执行（每条命令使用一个保存点，失败时只回滚该命令），整批只提交一次，提交后再逐个通知调用方。
+ * 多节点部署时队伍按 id 对节点数取模分配给固定的节点，其他节点通过 Redisson 远程服务把命令转发给负责的节点；
+ * 负责的节点未在限定时间内确认收到命令时改为在本节点执行。
+ * 调用方等待超时时，尚未开始执行的命令被取消，不会在之后悄悄生效；已开始执行的命令则继续等待其结果。
+ * 命令本身仍由数据库的行锁、条件更新与唯一索引保证正确，分配只用于减少冲突，短时间内出现两个写入者也不会出错
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class TeamWriteQueue {
+
+    private static final String REMOTE_SERVICE_PREFIX = "teamsmatcher:team:writer:";
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    /**
+     * 组提交开始时对整批命令执行一次的方法，用于按固定顺序预先加锁，避免不同写入线程的批次互相死锁
+     */
+    private Consumer<List<TeamWriteCommand>> preparer;
+
+    /**
+     * 执行单条命令的方法（不开启事务，由写入线程决定事务边界）
+     */
+    private Function<TeamWriteCommand, Boolean> handler;
+
+    private final List<Writer> writers = new ArrayList<>();
+
+    private TransactionTemplate batchTemplate;
+
+    private TransactionTemplate nestedTemplate;
+
+    private RRemoteService localRemoteService;
+
+    private volatile boolean running;
+
+    /**
+     * 启动写入线程，并注册本节点的远程服务
+     *
+     * @param preparer 组提交开始时对整批命令执行一次的方法
+     * @param handler 执行单条命令的方法，业务校验失败时抛出 BusinessException
+     */
+    public synchronized void start(Consumer<List<TeamWriteCommand>> preparer, Function<TeamWriteCommand, Boolean> handler) {
+        if (running) {
+            return;
+        }
+        TeamProperties.Queue queue = teamProperties.getJoin().getQueue();
+        if (queue.getNodeCount() < 1 || queue.getNodeIndex() < 0 || queue.getNodeIndex() >= queue.getNodeCount()) {
+            throw new IllegalArgumentException("team write queue node index must be in [0, node-count), node: "
+                    + queue.getNodeIndex() + "/" + queue.getNodeCount());
+        }
+        this.preparer = preparer;
+        this.handler = handler;
+        batchTemplate = new TransactionTemplate(transactionManager);
+        nestedTemplate = new TransactionTemplate(transactionManager);
+        nestedTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        running = true;
+        for (int i = 0; i < queue.getWriterThreads(); i++) {
+            Writer writer = new Writer(queue.getCapacity(), "team-writer-" + i);
+            writers.add(writer);
+            writer.thread.start();
+        }
+        if (queue.getNodeCount() > 1) {
+            localRemoteService = redissonClient.getRemoteService(REMOTE_SERVICE_PREFIX + queue.getNodeIndex(),
+                    new SerializationCodec());
+            localRemoteService.register(TeamWriteRemote.class, this::applyRemote, queue.getRemoteWorkers());
+        }
+        log.info("team write queue started, writers: {}, node: {}/{}",
+                queue.getWriterThreads(), queue.getNodeIndex(), queue.getNodeCount());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        if (localRemoteService != null) {
+            localRemoteService.deregister(TeamWriteRemote.class);
+        }
+        writers.forEach(writer -> writer.thread.interrupt());
+    }
+
+    /**
+     * 执行写入命令并等待结果：由本节点负责的队伍放入写入队列，否则转发给负责的节点
+     *
+     * @param command 写入命令
+     * @return 命令的返回值
+     * @throws BusinessException 命令的业务校验失败、队列已满或等待超时时抛出
+     */
+    public boolean execute(TeamWriteCommand command) {
+        TeamProperties.Queue queue = teamProperties.getJoin().getQueue();
+        int owner = (int) Math.floorMod(command.getTeamId(), (long) queue.getNodeCount());
+        if (owner == queue.getNodeIndex()) {
+            return await(submit(command));
+        }
+        // 负责的节点自行决定取消还是等待命令执行完，这里多等一段时间，避免在对方提交之后才放弃等待
+        RemoteInvocationOptions options = RemoteInvocationOptions.defaults()
+                .expectAckWithin(queue.getRemoteAckTimeoutMillis())
+                .expectResultWithin(queue.getTimeoutMillis() * 3L);
+        BaseResponse<Boolean> response;
+        try {
+            response = redissonClient.getRemoteService(REMOTE_SERVICE_PREFIX + owner, new SerializationCodec())
+                    .get(TeamWriteRemote.class, options)
+                    .apply(command);
+        } catch (RemoteServiceAckTimeoutException e) {
+            // 负责的节点不可用，命令未被取走，在本节点执行
+            log.warn("team writer node {} not responding, execute locally, teamId: {}", owner, command.getTeamId());
+            return await(submit(command));
+        } catch (RemoteServiceTimeoutException e) {
+            // 命令已被负责的节点取走，可能已经生效
+            log.error("team writer node {} result timeout, teamId: {}", owner, command.getTeamId());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作结果未知，请刷新后确认");
+        }
+        if (response.getCode() != ErrorCode.SUCCESS.getCode()) {
+            throw new BusinessException(response.getMessage(), response.getCode(), response.getDescription());
+        }
+        return Boolean.TRUE.equals(response.getData());
+    }
+
+    /**
+     * 执行其他节点转发来的命令，业务异常转换为错误码返回
+     */
+    @SuppressWarnings("unchecked")
+    private BaseResponse<Boolean> applyRemote(TeamWriteCommand command) {
+        try {
+            return ResultUtils.success(await(submit(command)));
+        } catch (BusinessException e) {
+            return ResultUtils.error(e.getCode(), e.getMessage(), e.getDescription());
+        }
+    }
+
+    private PendingCommand submit(TeamWriteCommand command) {
+        if (!running) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "队伍写入队列未启动");
+        }
+        // 先除以节点数再取模，节点数与线程数有公约数时本节点负责的队伍仍能均匀分配到各个线程
+        long slot = command.getTeamId() / teamProperties.getJoin().getQueue().getNodeCount();
+        Writer writer = writers.get((int) Math.floorMod(slot, (long) writers.size()));
+        PendingCommand pending = new PendingCommand(command);
+        if (!writer.queue.offer(pending)) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入队伍的人数过多，请稍后重试");
+        }
+        return pending;
+    }
+
+    /**
+     * 等待命令的结果。超时时若命令尚未开始执行则取消，写入线程取到后直接跳过；
+     * 已开始执行的命令继续等待，调用方拿到的结果与数据库一致
+     */
+    private boolean await(PendingCommand pending) {
+        try {
+            try {
+                return Boolean.TRUE.equals(pending.future.get(teamProperties.getJoin().getQueue().getTimeoutMillis(), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                if (pending.abandon()) {
+                    throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作超时，请稍后重试");
+                }
+                return Boolean.TRUE.equals(pending.future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            log.error("team write command error", e.getCause());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.abandon()) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+            }
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作结果未知，请刷新后确认");
+        }
+    }
+
+    /**
+     * 组提交：整批命令在一个事务中执行，每条命令回滚到各自的保存点，不影响同批的其他命令。
+     * 执行过程中出现非业务异常（例如死锁，MySQL 会回滚整个事务）时整批回滚，确认回滚后改为每条命令单独一个事务执行；
+     * 提交本身失败时事务是否生效无法确定，不再重放，整批按系统错误返回
+     */
+    private void commit(List<PendingCommand> batch) {
+        // 只执行尚未被调用方取消的命令
+        List<PendingCommand> running = new ArrayList<>(batch.size());
+        for (PendingCommand pending : batch) {
+            if (pending.start()) {
+                running.add(pending);
+            }
+        }
+        if (running.isEmpty()) {
+            return;
+        }
+        RuntimeException[] batchError = new RuntimeException[1];
+        try {
+            batchTemplate.executeWithoutResult(status -> {
+                try {
+                    List<TeamWriteCommand> commands = new ArrayList<>(running.size());
+                    running.forEach(pending -> commands.add(pending.command));
+                    preparer.accept(commands);
+                    for (PendingCommand pending : running) {
+                        try {
+                            pending.result = nestedTemplate.execute(nestedStatus -> handler.apply(pending.command));
+                            pending.error = null;
+                        } catch (BusinessException e) {
+                            pending.error = e;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // 标记回滚后正常返回，由模板回滚事务，回滚完成后再重放
+                    batchError[0] = e;
+                    status.setRollbackOnly();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("team write group commit failed, size: {}", running.size(), e);
+            running.forEach(pending -> pending.future.completeExceptionally(
+                    new BusinessException(ErrorCode.SYSTEM_ERROR, "操作结果未知，请刷新后确认")));
+            return;
+        }
+        if (batchError[0] != null) {
+            log.warn("team write group commit rolled back, retry one by one, size: {}", running.size(), batchError[0]);
+            for (PendingCommand pending : running) {
+                try {
+                    pending.result = batchTemplate.execute(status -> handler.apply(pending.command));
+                    pending.error = null;
+                } catch (RuntimeException ex) {
+                    pending.error = ex;
+                }
+            }
+        }
+        // 事务提交后再通知调用方，调用方拿到结果时修改已对其他请求可见
+        for (PendingCommand pending : running) {
+            if (pending.error != null) {
+                pending.future.completeExceptionally(pending.error);
+            } else {
+                pending.future.complete(pending.result);
+            }
+        }
+    }
+
+    private void drain(Writer writer) {
+        int maxBatchSize = teamProperties.getJoin().getQueue().getMaxBatchSize();
+        List<PendingCommand> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingCommand first = writer.queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                writer.queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("team writer error", e);
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        // 停止后队列中剩余的命令不再执行
+        PendingCommand pending;
+        while ((pending = writer.queue.poll()) != null) {
+            pending.future.completeExceptionally(new BusinessException(ErrorCode.SYSTEM_ERROR, "服务正在停止，请稍后重试"));
+        }
+    }
+
+    /**
+     * 写入线程：持有自己的命令队列
+     */
+    private class Writer {
+
+        private final BlockingQueue<PendingCommand> queue;
+
+        private final Thread thread;
+
+        private Writer(int capacity, String name) {
+            this.queue = new LinkedBlockingQueue<>(capacity);
+            this.thread = new Thread(() -> drain(this), name);
+            this.thread.setDaemon(true);
+        }
+    }
+
+    /**
+     * 等待执行的命令与调用方等待的结果
+     */
+    private static class PendingCommand {
+
+        private static final int QUEUED = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int ABANDONED = 2;
+
+        private final TeamWriteCommand command;
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        /**
+         * 排队中 / 已开始执行 / 已被调用方取消，只能从排队中转换一次
+         */
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private Boolean result;
+
+        private RuntimeException error;
+
+        private PendingCommand(TeamWriteCommand command) {
+            this.command = command;
+        }
+
+        /**
+         * 写入线程开始执行命令
+         *
+         * @return false - 命令已被调用方取消
+         */
+        private boolean start() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        /**
+         * 调用方取消尚未执行的命令
+         *
+         * @return false - 命令已开始执行
+         */
+        private boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+}
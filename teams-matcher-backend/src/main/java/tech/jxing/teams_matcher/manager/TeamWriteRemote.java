@@ -0,0 +1,21 @@
+package tech.jxing.teams_matcher.manager;
+
+import tech.jxing.teams_matcher.common.BaseResponse;
+import tech.jxing.teams_matcher.model.dto.TeamWriteCommand;
+
+/**
+ * 队伍写入命令的远程调用接口：由负责该队伍的节点通过 Redisson 远程服务注册，其他节点将命令转发过去执行。
+ * 业务异常以错误码的形式返回，由调用方还原为 BusinessException
+ *
+ * @author JunXing
+ */
+public interface TeamWriteRemote {
+
+    /**
+     * 在本节点的写入队列中执行命令
+     *
+     * @param command 写入命令
+     * @return 执行结果，code 为 0 时 data 为命令的返回值
+     */
+    BaseResponse<Boolean> apply(TeamWriteCommand command);
+}
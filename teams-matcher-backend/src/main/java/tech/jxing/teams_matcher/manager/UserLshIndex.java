@@ -0,0 +1,177 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.model.enums.MatchModeEnum;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户标签 MinHash/LSH 索引
+ * 为每个用户的标签集合计算 MinHash 签名，并按 bands 分段放入哈希桶，
+ * 与目标用户至少在一个分段上落入同一个桶的用户作为候选，只对候选用户计算精确的编辑距离。
+ * 仅在匹配模式为 LSH 或开启了 LSH 效果评估时构建，其他模式下不占用内存、也不在标签更新时计算签名
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserLshIndex implements UserTagProfileStore.Listener {
+
+    @Resource
+    private UserTagProfileStore userTagProfileStore;
+
+    @Resource
+    private UserMatchProperties userMatchProperties;
+
+    private int bands;
+
+    private int rows;
+
+    /**
+     * MinHash 使用的哈希种子，共 bands * rows 个
+     */
+    private long[] seeds;
+
+    /**
+     * 每个分段一张桶表：桶键 -> 用户 id 位图
+     */
+    private Map<Long, Roaring64NavigableMap>[] bucketTables;
+
+    /**
+     * 用户 id -> 该用户在各分段上的桶键，用于更新时移除旧桶
+     */
+    private final Map<Long, long[]> bucketKeysByUserId = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        UserMatchProperties.Lsh lsh = userMatchProperties.getLsh();
+        bands = Math.max(1, lsh.getBands());
+        rows = Math.max(1, lsh.getRows());
+        // 固定随机种子，保证不同实例、不同重启之间签名一致
+        Random random = new Random(20240409L);
+        seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        bucketTables = new Map[bands];
+        for (int i = 0; i < bands; i++) {
+            bucketTables[i] = new HashMap<>();
+        }
+        userTagProfileStore.subscribe(this);
+        log.info("user lsh index built, bands: {}, rows: {}, users: {}", bands, rows, bucketKeysByUserId.size());
+    }
+
+    public boolean isEnabled() {
+        return MatchModeEnum.LSH.equals(userMatchProperties.getMode()) || userMatchProperties.getLsh().isEvaluationEnabled();
+    }
+
+    @Override
+    public void onProfileChanged(long userId, int[] oldProfile, int[] newProfile) {
+        // 签名计算不需要持有索引锁
+        long[] newKeys = newProfile == null || newProfile.length == 0 ? null : bucketKeys(newProfile);
+        lock.writeLock().lock();
+        try {
+            long[] oldKeys = bucketKeysByUserId.remove(userId);
+            if (oldKeys != null) {
+                for (int band = 0; band < bands; band++) {
+                    Roaring64NavigableMap bucket = bucketTables[band].get(oldKeys[band]);
+                    if (bucket != null) {
+                        bucket.removeLong(userId);
+                        if (bucket.isEmpty()) {
+                            bucketTables[band].remove(oldKeys[band]);
+                        }
+                    }
+                }
+            }
+            if (newKeys != null) {
+                for (int band = 0; band < bands; band++) {
+                    bucketTables[band].computeIfAbsent(newKeys[band], key -> new Roaring64NavigableMap()).addLong(userId);
+                }
+                bucketKeysByUserId.put(userId, newKeys);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取与目标标签集合至少在一个分段上同桶的候选用户
+     *
+     * @param target 目标用户的标签 id 数组
+     * @return 候选用户 id 位图
+     */
+    public Roaring64NavigableMap candidates(int[] target) {
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        if (target.length == 0) {
+            return result;
+        }
+        long[] keys = bucketKeys(target);
+        lock.readLock().lock();
+        try {
+            for (int band = 0; band < bands; band++) {
+                Roaring64NavigableMap bucket = bucketTables[band].get(keys[band]);
+                if (bucket != null) {
+                    result.or(bucket);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * 计算标签集合在每个分段上的桶键
+     */
+    private long[] bucketKeys(int[] profile) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                long seed = seeds[band * rows + row];
+                // MinHash：该哈希函数下所有标签哈希值的最小值
+                long min = Long.MAX_VALUE;
+                for (int tagId : profile) {
+                    long hash = mix(tagId ^ seed);
+                    if (hash < min) {
+                        min = hash;
+                    }
+                }
+                key = mix(key * 31 + min);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * SplitMix64 的混淆函数，作为一族近似独立的哈希函数使用
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
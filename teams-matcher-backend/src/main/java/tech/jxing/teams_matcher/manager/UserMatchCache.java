@@ -0,0 +1,118 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.utils.TopKCollector;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户匹配结果缓存
+ * 每个用户的匹配结果保存在 Redis 有序集合中，成员为匹配用户 id，分数按编辑距离排列（越小越匹配）。
+ * 结果的时效有上限而非实时：用户修改标签时只删除其自身的结果，其他用户的结果中对该用户的排名
+ * 仍基于旧标签，直到预计算任务下一轮重新计算这些用户。因此结果的过期时间由预计算任务按一轮的耗时设置，
+ * 超过一轮仍未被重新计算的结果自动过期、改为实时计算，读取到的结果最多落后一轮
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserMatchCache {
+
+    private static final String KEY_PREFIX = "teamsmatcher:user:match:";
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private UserMatchProperties userMatchProperties;
+
+    /**
+     * 读取预计算的匹配结果
+     *
+     * @param userId 用户 id
+     * @param num 需要的匹配用户数量
+     * @return 按匹配度从高到低排列的用户 id 列表；未命中或读取失败时返回 null
+     */
+    public List<Long> get(long userId, long num) {
+        if (!userMatchProperties.getPrecompute().isEnabled() || num > userMatchProperties.getPrecompute().getTopN()) {
+            return null;
+        }
+        try {
+            Set<Object> members = redisTemplate.opsForZSet().range(KEY_PREFIX + userId, 0, num - 1);
+            if (members == null || members.isEmpty()) {
+                return null;
+            }
+            List<Long> userIdList = new ArrayList<>(members.size());
+            for (Object member : members) {
+                userIdList.add(((Number) member).longValue());
+            }
+            return userIdList;
+        } catch (Exception e) {
+            log.error("redis get match cache error", e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入匹配结果：在一个事务（MULTI/EXEC）中清空临时键、写入结果并设置过期时间，再重命名为正式键，
+     * 读取方不会看到写了一半的结果，也不会留下没有过期时间的键
+     *
+     * @param userId 用户 id
+     * @param topUserList 按匹配度排列的用户 id 及编辑距离
+     * @param expireMillis 过期时间（毫秒）
+     */
+    public void put(long userId, List<TopKCollector.Entry<Long>> topUserList, long expireMillis) {
+        String key = KEY_PREFIX + userId;
+        if (topUserList.isEmpty()) {
+            redisTemplate.delete(key);
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        for (int rank = 0; rank < topUserList.size(); rank++) {
+            TopKCollector.Entry<Long> entry = topUserList.get(rank);
+            // 分数 = 编辑距离 + 名次 * 0.001，同分时仍保持引擎给出的先后次序（名次远小于 1000）
+            tuples.add(new DefaultTypedTuple<>(entry.getItem(), entry.getScore() + rank * 0.001));
+        }
+        String tempKey = key + ":tmp";
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.multi();
+                // 上一次写入中断时临时键中可能残留旧成员
+                ops.delete(tempKey);
+                ops.opsForZSet().add(tempKey, tuples);
+                ops.expire(tempKey, expireMillis, TimeUnit.MILLISECONDS);
+                ops.rename(tempKey, key);
+                return ops.exec();
+            }
+        });
+    }
+
+    /**
+     * 删除用户的匹配结果（用户自身标签变化后，旧结果已失效）
+     *
+     * @param userId 用户 id
+     */
+    public void evict(long userId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.error("redis delete match cache error", e);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.common.ErrorCode;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.model.enums.MatchModeEnum;
+import tech.jxing.teams_matcher.model.vo.MatchEvaluationVO;
+import tech.jxing.teams_matcher.utils.AlgorithmUtils;
+import tech.jxing.teams_matcher.utils.TagClosure;
+import tech.jxing.teams_matcher.utils.TopKCollector;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * 用户匹配引擎
+ * 基于内存中的用户标签画像（标签 id 数组）计算编辑距离，返回匹配度最高的前 K 个用户。
+ * 候选用户较多时，将画像快照按槽位区间拆分到专用的 ForkJoinPool 上并行计算，
+ * 每个子任务维护自己的 Top-K，最后逐级合并。
+ * 配置为 LSH 模式时，只对 MinHash/LSH 分桶得到的候选用户计算编辑距离；
+ * 配置为 HNSW 模式时，直接从标签向量索引中查询余弦距离最近的用户。
+ * 启用层级感知时，编辑距离以半单位计分，祖先/子孙标签之间的替换视为部分匹配
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserMatchEngine {
+
+    @Resource
+    private UserTagProfileStore userTagProfileStore;
+
+    @Resource
+    private UserMatchProperties userMatchProperties;
+
+    @Resource
+    private UserLshIndex userLshIndex;
+
+    @Resource
+    private UserVectorIndex userVectorIndex;
+
+    @Resource
+    private TagHierarchy tagHierarchy;
+
+    /**
+     * 匹配专用线程池，不与公共 ForkJoinPool 共享，避免与其他并行流互相影响
+     */
+    private ForkJoinPool matchPool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = Math.max(1, userMatchProperties.getParallelism());
+        matchPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("user-match-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("user match pool created, parallelism: {}", parallelism);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        matchPool.shutdown();
+    }
+
+    /**
+     * 按配置的匹配模式计算与目标标签画像最匹配的前 num 个用户
+     *
+     * @param target 目标用户的标签 id 数组
+     * @param excludeUserId 需要排除的用户 id（通常为当前登录用户）
+     * @param num 需要返回的用户数量
+     * @return 按编辑距离从小到大排列的用户 id 及其距离
+     */
+    public List<TopKCollector.Entry<Long>> match(int[] target, long excludeUserId, int num) {
+        MatchModeEnum mode = userMatchProperties.getMode();
+        if (MatchModeEnum.LSH.equals(mode)) {
+            List<TopKCollector.Entry<Long>> result = topKAmong(target, excludeUserId, num, userLshIndex.candidates(target));
+            // 候选用户不足时回退到精确匹配
+            if (result.size() < num && userMatchProperties.getLsh().isFallbackToExact()) {
+                return topK(target, excludeUserId, num);
+            }
+            return result;
+        }
+        if (MatchModeEnum.HNSW.equals(mode)) {
+            List<TopKCollector.Entry<Long>> result = userVectorIndex.search(target, excludeUserId, num);
+            if (result.size() < num && userMatchProperties.getHnsw().isFallbackToExact()) {
+                return topK(target, excludeUserId, num);
+            }
+            return result;
+        }
+        return topK(target, excludeUserId, num);
+    }
+
+    /**
+     * 计算与目标标签画像最匹配的前 num 个用户（精确匹配，遍历所有用户）
+     *
+     * @param target 目标用户的标签 id 数组
+     * @param excludeUserId 需要排除的用户 id（通常为当前登录用户）
+     * @param num 需要返回的用户数量
+     * @return 按编辑距离从小到大排列的用户 id 及其距离
+     */
+    public List<TopKCollector.Entry<Long>> topK(int[] target, long excludeUserId, int num) {
+        UserTagProfileStore.Snapshot snapshot = userTagProfileStore.snapshot();
+        TagClosure closure = currentClosure();
+        int size = snapshot.size();
+        TopKCollector<Long> topK;
+        if (size < userMatchProperties.getParallelThreshold() || matchPool.getParallelism() <= 1) {
+            topK = new TopKCollector<>(num);
+            scoreRange(snapshot, closure, target, excludeUserId, 0, size, topK);
+        } else {
+            // 按并行度拆分，每个线程约分到 4 个子任务，便于工作窃取
+            int batchSize = Math.max(userMatchProperties.getMinBatchSize(), size / (matchPool.getParallelism() * 4));
+            topK = matchPool.invoke(new ScoreTask(snapshot, closure, target, excludeUserId, num, 0, size, batchSize));
+        }
+        return topK.toSortedList();
+    }
+
+    /**
+     * 只在候选用户中计算与目标标签画像最匹配的前 num 个用户
+     *
+     * @param target 目标用户的标签 id 数组
+     * @param excludeUserId 需要排除的用户 id
+     * @param num 需要返回的用户数量
+     * @param candidates 候选用户 id 位图
+     * @return 按编辑距离从小到大排列的用户 id 及其距离
+     */
+    public List<TopKCollector.Entry<Long>> topKAmong(int[] target, long excludeUserId, int num, Roaring64NavigableMap candidates) {
+        TagClosure closure = currentClosure();
+        TopKCollector<Long> topK = new TopKCollector<>(num);
+        LongIterator iterator = candidates.getLongIterator();
+        while (iterator.hasNext()) {
+            long userId = iterator.next();
+            int[] profile = userTagProfileStore.get(userId);
+            if (profile == null || userId == excludeUserId) {
+                continue;
+            }
+            long threshold = topK.threshold();
+            int bound = threshold > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) threshold - 1;
+            int distance = distance(closure, target, profile, bound);
+            if (distance != Integer.MAX_VALUE) {
+                topK.offer(userId, distance);
+            }
+        }
+        return topK.toSortedList();
+    }
+
+    /**
+     * 抽样对比 LSH 近似匹配与精确匹配的结果，用于调节 bands / rows 参数
+     *
+     * @param sampleSize 抽样用户数量
+     * @param num 每个用户返回的匹配用户数量
+     * @return 对比结果
+     */
+    public MatchEvaluationVO evaluateLsh(int sampleSize, int num) {
+        if (!userLshIndex.isEnabled()) {
+            throw new BusinessException(ErrorCode.FORBIDDEN, "LSH 索引未启用");
+        }
+        UserTagProfileStore.Snapshot snapshot = userTagProfileStore.snapshot();
+        Random random = new Random();
+        int sampled = 0;
+        double recallSum = 0;
+        double distanceGapSum = 0;
+        long candidateSum = 0;
+        long exactNanos = 0;
+        long lshNanos = 0;
+        for (int attempt = 0; attempt < sampleSize * 10 && sampled < sampleSize && snapshot.size() > 0; attempt++) {
+            int slot = random.nextInt(snapshot.size());
+            int[] profile = snapshot.profile(slot);
+            if (profile == null || profile.length == 0) {
+                continue;
+            }
+            long userId = snapshot.userId(slot);
+            long start = System.nanoTime();
+            List<TopKCollector.Entry<Long>> exact = topK(profile, userId, num);
+            exactNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Roaring64NavigableMap candidates = userLshIndex.candidates(profile);
+            List<TopKCollector.Entry<Long>> approximate = topKAmong(profile, userId, num, candidates);
+            lshNanos += System.nanoTime() - start;
+
+            candidateSum += candidates.getLongCardinality();
+            if (!exact.isEmpty()) {
+                Set<Long> exactIdSet = exact.stream().map(TopKCollector.Entry::getItem).collect(Collectors.toSet());
+                long hit = approximate.stream().filter(entry -> exactIdSet.contains(entry.getItem())).count();
+                recallSum += (double) hit / exact.size();
+                distanceGapSum += averageScore(approximate, exact.size()) - averageScore(exact, exact.size());
+            } else {
+                recallSum += 1;
+            }
+            sampled++;
+        }
+        MatchEvaluationVO evaluation = new MatchEvaluationVO();
+        evaluation.setSampleSize(sampled);
+        evaluation.setNum(num);
+        evaluation.setBands(userLshIndex.getBands());
+        evaluation.setRows(userLshIndex.getRows());
+        if (sampled > 0) {
+            evaluation.setAvgRecall(recallSum / sampled);
+            evaluation.setAvgDistanceGap(distanceGapSum / sampled);
+            evaluation.setAvgCandidates((double) candidateSum / sampled);
+            evaluation.setExactAvgMillis(exactNanos / 1e6 / sampled);
+            evaluation.setLshAvgMillis(lshNanos / 1e6 / sampled);
+        }
+        return evaluation;
+    }
+
+    /**
+     * 计算结果的平均编辑距离，结果不足 expectedSize 个时，缺少的部分按目标与空集合的最大距离惩罚计入
+     */
+    private static double averageScore(List<TopKCollector.Entry<Long>> entries, int expectedSize) {
+        long sum = 0;
+        long max = 0;
+        for (TopKCollector.Entry<Long> entry : entries) {
+            sum += entry.getScore();
+            max = Math.max(max, entry.getScore());
+        }
+        sum += (expectedSize - Math.min(expectedSize, entries.size())) * (max + 1);
+        return (double) sum / expectedSize;
+    }
+
+    /**
+     * 当前使用的标签层级闭包，未启用层级感知时为 null
+     */
+    private TagClosure currentClosure() {
+        return userMatchProperties.isHierarchyAware() ? tagHierarchy.closure() : null;
+    }
+
+    /**
+     * 计算带上界的编辑距离，闭包为 null 时不考虑标签层级
+     */
+    private static int distance(TagClosure closure, int[] target, int[] profile, int bound) {
+        return closure == null
+                ? AlgorithmUtils.boundedMiniDistance(target, profile, bound)
+                : AlgorithmUtils.boundedHierarchyDistance(target, profile, bound, closure);
+    }
+
+    /**
+     * 顺序计算 [from, to) 槽位区间内的用户，使用槽位下标作为同分时的次序
+     */
+    private static void scoreRange(UserTagProfileStore.Snapshot snapshot, TagClosure closure, int[] target, long excludeUserId,
+                                   int from, int to, TopKCollector<Long> topK) {
+        for (int slot = from; slot < to; slot++) {
+            int[] profile = snapshot.profile(slot);
+            long userId = snapshot.userId(slot);
+            // 跳过没有标签的用户和当前登录用户
+            if (profile == null || userId == excludeUserId) {
+                continue;
+            }
+            // 只有严格优于当前第 K 名的用户才能进入结果，以此作为编辑距离的剪枝上界
+            long threshold = topK.threshold();
+            int bound = threshold > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) threshold - 1;
+            int distance = distance(closure, target, profile, bound);
+            if (distance != Integer.MAX_VALUE) {
+                topK.offer(userId, distance, slot);
+            }
+        }
+    }
+
+    /**
+     * 并行匹配子任务：区间足够小时顺序计算，否则二分后分别计算再合并
+     */
+    private static class ScoreTask extends RecursiveTask<TopKCollector<Long>> {
+
+        private final UserTagProfileStore.Snapshot snapshot;
+
+        private final TagClosure closure;
+
+        private final int[] target;
+
+        private final long excludeUserId;
+
+        private final int num;
+
+        private final int from;
+
+        private final int to;
+
+        private final int batchSize;
+
+        ScoreTask(UserTagProfileStore.Snapshot snapshot, TagClosure closure, int[] target, long excludeUserId,
+                  int num, int from, int to, int batchSize) {
+            this.snapshot = snapshot;
+            this.closure = closure;
+            this.target = target;
+            this.excludeUserId = excludeUserId;
+            this.num = num;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected TopKCollector<Long> compute() {
+            if (to - from <= batchSize) {
+                TopKCollector<Long> topK = new TopKCollector<>(num);
+                scoreRange(snapshot, closure, target, excludeUserId, from, to, topK);
+                return topK;
+            }
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(snapshot, closure, target, excludeUserId, num, from, mid, batchSize);
+            ScoreTask right = new ScoreTask(snapshot, closure, target, excludeUserId, num, mid, to, batchSize);
+            left.fork();
+            TopKCollector<Long> result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+}
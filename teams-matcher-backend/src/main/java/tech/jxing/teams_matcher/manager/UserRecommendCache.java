@@ -0,0 +1,252 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.UserRecommendProperties;
+import tech.jxing.teams_matcher.model.domain.User;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 推荐用户缓存
+ * 按用户、页码与每页数量分别缓存推荐结果。缓存值中记录逻辑过期时间，Redis 中的实际过期时间再延后一段，
+ * 逻辑过期后的请求直接返回旧数据，并在后台重建；缓存不存在时只有一个调用方查询数据库，其余调用方等待其结果。
+ * 同一个键的重建在本节点内合并为一次，跨节点由 Redisson 互斥锁保证只有一个节点查询数据库。
+ * 过期时间追加随机值，同一时刻写入的缓存不会同时过期
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserRecommendCache {
+
+    private static final String KEY_PREFIX = "teamsmatcher:user:recommend:";
+
+    private static final String LOCK_KEY_PREFIX = "teamsmatcher:user:recommend:lock:";
+
+    /**
+     * 等待其他节点重建时读取缓存的间隔（毫秒）
+     */
+    private static final long WAIT_STEP_MILLIS = 50;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private UserRecommendProperties userRecommendProperties;
+
+    /**
+     * 本节点正在重建的键 -> 重建结果，同一个键的并发请求共享一次重建
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Page<User>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 后台重建线程，队列已满时放弃本次重建，之后的请求会再次触发
+     */
+    private final ExecutorService refreshExecutor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "user-recommend-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取推荐用户分页，缓存不存在时查询并写入缓存，缓存已过期时返回旧数据并在后台重建
+     *
+     * @param userId 当前用户 id
+     * @param pageNum 页码
+     * @param pageSize 每页数量
+     * @param loader 查询数据库的方法
+     * @return 推荐用户分页
+     */
+    public Page<User> get(long userId, long pageNum, long pageSize, Supplier<Page<User>> loader) {
+        if (!userRecommendProperties.isEnabled() || pageNum < 1 || pageSize < 1
+                || pageNum > userRecommendProperties.getMaxCachedPageNum()
+                || pageSize > userRecommendProperties.getMaxCachedPageSize()) {
+            return loader.get();
+        }
+        String key = buildKey(userId, pageNum, pageSize);
+        CacheEntry entry = read(key);
+        if (entry != null) {
+            if (entry.expireAt <= System.currentTimeMillis()) {
+                rebuild(key, loader, true);
+            }
+            return entry.page;
+        }
+        try {
+            // 共享到的是后台重建且其他节点持有锁时结果为 null，自行查询
+            Page<User> page = rebuild(key, loader, false).join();
+            return page != null ? page : loader.get();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 直接写入推荐用户分页（用于缓存预热）
+     *
+     * @param userId 当前用户 id
+     * @param pageNum 页码
+     * @param pageSize 每页数量
+     * @param page 推荐用户分页
+     */
+    public void put(long userId, long pageNum, long pageSize, Page<User> page) {
+        write(buildKey(userId, pageNum, pageSize), page);
+    }
+
+    /**
+     * 发起重建：本节点内同一个键已有重建在进行时直接返回其结果
+     *
+     * @param async 是否在后台线程中重建（已有旧数据可返回时）
+     */
+    private CompletableFuture<Page<User>> rebuild(String key, Supplier<Page<User>> loader, boolean async) {
+        CompletableFuture<Page<User>> future = new CompletableFuture<>();
+        CompletableFuture<Page<User>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        Runnable task = () -> {
+            try {
+                future.complete(load(key, loader, async));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        };
+        if (!async) {
+            task.run();
+            return future;
+        }
+        try {
+            refreshExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.complete(null);
+        }
+        return future;
+    }
+
+    /**
+     * 获取互斥锁后查询数据库并写入缓存；其他节点正在重建时，后台重建直接放弃，
+     * 缓存不存在的请求等待其写入缓存，超时后自行查询数据库（不写入缓存）
+     */
+    private Page<User> load(String key, Supplier<Page<User>> loader, boolean async) throws InterruptedException {
+        RLock lock = redissonClient.getLock(LOCK_KEY_PREFIX + key.substring(KEY_PREFIX.length()));
+        boolean locked;
+        try {
+            locked = lock.tryLock(0L, userRecommendProperties.getLockLeaseMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            // Redis 不可用时不使用缓存
+            log.error("redis lock user recommend cache error", e);
+            return async ? null : loader.get();
+        }
+        if (!locked) {
+            if (async) {
+                return null;
+            }
+            long deadline = System.currentTimeMillis() + userRecommendProperties.getWaitMillis();
+            while (System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(WAIT_STEP_MILLIS);
+                CacheEntry entry = read(key);
+                if (entry != null) {
+                    return entry.page;
+                }
+            }
+            return loader.get();
+        }
+        try {
+            // 获取锁之前其他节点可能刚完成重建
+            CacheEntry entry = read(key);
+            if (entry != null && entry.expireAt > System.currentTimeMillis()) {
+                return entry.page;
+            }
+            Page<User> page = loader.get();
+            write(key, page);
+            return page;
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private CacheEntry read(String key) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(key);
+            return cached instanceof CacheEntry ? (CacheEntry) cached : null;
+        } catch (Exception e) {
+            log.error("redis get user recommend cache error", e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存：逻辑有效时间追加随机值，Redis 中的过期时间再延后可返回旧数据的时间
+     */
+    private void write(String key, Page<User> page) {
+        long jitterMillis = ThreadLocalRandom.current().nextLong(
+                TimeUnit.SECONDS.toMillis(userRecommendProperties.getJitterSeconds()) + 1);
+        long expireMillis = TimeUnit.SECONDS.toMillis(userRecommendProperties.getExpireSeconds()) + jitterMillis;
+        long ttlMillis = expireMillis + TimeUnit.SECONDS.toMillis(userRecommendProperties.getStaleSeconds());
+        try {
+            redisTemplate.opsForValue().set(key, new CacheEntry(page, System.currentTimeMillis() + expireMillis),
+                    ttlMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("redis set user recommend cache error", e);
+        }
+    }
+
+    private static String buildKey(long userId, long pageNum, long pageSize) {
+        return KEY_PREFIX + userId + ":" + pageNum + ":" + pageSize;
+    }
+
+    /**
+     * 缓存值：推荐用户分页与逻辑过期时间
+     */
+    private static class CacheEntry implements Serializable {
+
+        private static final long serialVersionUID = 6158907441533402257L;
+
+        private final Page<User> page;
+
+        /**
+         * 逻辑过期时间（毫秒时间戳）
+         */
+        private final long expireAt;
+
+        private CacheEntry(Page<User> page, long expireAt) {
+            this.page = page;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.TagSearchProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户标签倒排索引
+ * 标签 id -> 拥有该标签的用户 id 压缩位图（Roaring Bitmap），
+ * 多标签的“同时包含”查询转化为位图求交集，不再需要全表扫描与逐个反序列化标签。
+ * 启动时由用户标签画像构建，之后随画像的变更增量更新
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserTagInvertedIndex implements UserTagProfileStore.Listener {
+
+    @Resource
+    private UserTagProfileStore userTagProfileStore;
+
+    @Resource
+    private TagDictionary tagDictionary;
+
+    @Resource
+    private TagHierarchy tagHierarchy;
+
+    @Resource
+    private TagSearchProperties tagSearchProperties;
+
+    private final Map<Integer, Roaring64NavigableMap> bitmapByTagId = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void init() {
+        // 订阅时会回放已有画像，完成索引的初始构建
+        userTagProfileStore.subscribe(this);
+        log.info("user tag inverted index built, tags: {}", bitmapByTagId.size());
+    }
+
+    @Override
+    public void onProfileChanged(long userId, int[] oldProfile, int[] newProfile) {
+        lock.writeLock().lock();
+        try {
+            if (oldProfile != null) {
+                for (int tagId : oldProfile) {
+                    Roaring64NavigableMap bitmap = bitmapByTagId.get(tagId);
+                    if (bitmap != null) {
+                        bitmap.removeLong(userId);
+                    }
+                }
+            }
+            if (newProfile != null) {
+                for (int tagId : newProfile) {
+                    bitmapByTagId.computeIfAbsent(tagId, key -> new Roaring64NavigableMap()).addLong(userId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询同时拥有所有指定标签的用户（启用层级扩展时，拥有某标签的任一子孙标签也视为拥有该标签）
+     *
+     * @param tagNameList 标签名列表
+     * @return 用户 id 位图（按 id 升序遍历）
+     */
+    public Roaring64NavigableMap searchAll(List<String> tagNameList) {
+        lock.readLock().lock();
+        try {
+            List<Roaring64NavigableMap> bitmapList = new ArrayList<>(tagNameList.size());
+            for (String tagName : tagNameList) {
+                Roaring64NavigableMap bitmap = bitmapOf(tagDictionary.getId(tagName));
+                // 任意一个标签没有用户，交集必然为空
+                if (bitmap == null || bitmap.isEmpty()) {
+                    return new Roaring64NavigableMap();
+                }
+                bitmapList.add(bitmap);
+            }
+            // 从基数最小的位图开始求交集，中间结果尽可能小
+            bitmapList.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+            Roaring64NavigableMap result = new Roaring64NavigableMap();
+            result.or(bitmapList.get(0));
+            for (int i = 1; i < bitmapList.size() && !result.isEmpty(); i++) {
+                result.and(bitmapList.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 拥有指定标签的用户位图；启用层级扩展时为标签及其全部子孙标签的位图并集。调用方需持有读锁
+     */
+    private Roaring64NavigableMap bitmapOf(int tagId) {
+        if (tagId == TagDictionary.UNKNOWN_ID || !tagSearchProperties.isExpandDescendants()) {
+            return bitmapByTagId.get(tagId);
+        }
+        int[] tagIds = tagHierarchy.selfAndDescendants(tagId);
+        if (tagIds.length == 1) {
+            return bitmapByTagId.get(tagId);
+        }
+        Roaring64NavigableMap union = new Roaring64NavigableMap();
+        for (int id : tagIds) {
+            Roaring64NavigableMap bitmap = bitmapByTagId.get(id);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+}
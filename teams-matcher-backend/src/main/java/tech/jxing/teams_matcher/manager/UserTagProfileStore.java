@@ -0,0 +1,229 @@
+package tech.jxing.teams_matcher.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.mapper.UserMapper;
+import tech.jxing.teams_matcher.model.domain.User;
+import tech.jxing.teams_matcher.utils.TagList;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户标签画像存储
+ * 在内存中保存每个用户编码后的标签 id 数组（int[]），标签 JSON 只在用户写入时解析一次，
+ * 匹配时直接遍历画像快照，不再查询数据库和反序列化 JSON。
+ * 写操作加锁串行执行，读操作通过 volatile 快照无锁进行
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserTagProfileStore {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private TagDictionary tagDictionary;
+
+    /**
+     * 用户 id -> 槽位下标，仅在持有锁时写入
+     */
+    private final Map<Long, Integer> slotByUserId = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new long[1024], new int[1024][], 0);
+
+    /**
+     * 画像变更监听器，仅在持有锁时访问
+     */
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * 启动时流式加载所有带标签的用户画像，逐行编码，不在内存中保留完整的用户列表
+     */
+    @PostConstruct
+    public void init() {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tags");
+        queryWrapper.eq("isDelete", 0);
+        queryWrapper.isNotNull("tags");
+        userMapper.selectStream(queryWrapper, context -> {
+            User user = context.getResultObject();
+            put(user.getId(), user.getTagList());
+        });
+        log.info("user tag profiles loaded, size: {}", snapshot.size);
+    }
+
+    /**
+     * 写入（或更新）用户的标签画像，标签为空时移除该用户的画像
+     *
+     * @param userId 用户 id
+     * @param tagsJson 用户标签 JSON
+     */
+    public void put(long userId, String tagsJson) {
+        put(userId, TagList.parse(tagsJson));
+    }
+
+    /**
+     * 写入（或更新）用户的标签画像，标签为空时移除该用户的画像
+     *
+     * @param userId 用户 id
+     * @param tagList 用户标签列表
+     */
+    public void put(long userId, TagList tagList) {
+        if (tagList == null) {
+            remove(userId);
+            return;
+        }
+        int[] profile = tagDictionary.encode(tagList);
+        synchronized (this) {
+            Snapshot current = snapshot;
+            Integer slot = slotByUserId.get(userId);
+            if (slot != null) {
+                int[] oldProfile = current.profiles[slot];
+                current.profiles[slot] = profile;
+                notifyListeners(userId, oldProfile, profile);
+                return;
+            }
+            long[] userIds = current.userIds;
+            int[][] profiles = current.profiles;
+            int size = current.size;
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+                profiles = Arrays.copyOf(profiles, size * 2);
+            }
+            userIds[size] = userId;
+            profiles[size] = profile;
+            // 先发布快照再登记槽位，无锁读取方查到槽位时一定能在快照中读到对应画像
+            snapshot = new Snapshot(userIds, profiles, size + 1);
+            slotByUserId.put(userId, size);
+            notifyListeners(userId, null, profile);
+        }
+    }
+
+    /**
+     * 移除用户的标签画像（保留槽位，之后写入时复用）
+     *
+     * @param userId 用户 id
+     */
+    public synchronized void remove(long userId) {
+        Integer slot = slotByUserId.get(userId);
+        if (slot != null && snapshot.profiles[slot] != null) {
+            int[] oldProfile = snapshot.profiles[slot];
+            snapshot.profiles[slot] = null;
+            notifyListeners(userId, oldProfile, null);
+        }
+    }
+
+    /**
+     * 订阅画像变更。订阅时会先在锁内回放当前所有画像并通知回放结束，保证订阅者不会错过订阅前后的任何变更
+     *
+     * @param listener 画像变更监听器
+     */
+    public synchronized void subscribe(Listener listener) {
+        Snapshot current = snapshot;
+        for (int slot = 0; slot < current.size; slot++) {
+            if (current.profiles[slot] != null) {
+                listener.onProfileChanged(current.userIds[slot], null, current.profiles[slot]);
+            }
+        }
+        listener.onReplayFinished();
+        listeners.add(listener);
+    }
+
+    private void notifyListeners(long userId, int[] oldProfile, int[] newProfile) {
+        for (Listener listener : listeners) {
+            listener.onProfileChanged(userId, oldProfile, newProfile);
+        }
+    }
+
+    /**
+     * 获取单个用户的标签画像
+     *
+     * @param userId 用户 id
+     * @return 标签 id 数组，用户没有标签时返回 null
+     */
+    public int[] get(long userId) {
+        Integer slot = slotByUserId.get(userId);
+        return slot == null ? null : snapshot.profiles[slot];
+    }
+
+    /**
+     * 获取当前画像快照，用于无锁遍历
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 将标签 JSON 编码为标签 id 数组
+     *
+     * @param tagsJson 标签 JSON
+     * @return 标签 id 数组
+     */
+    public int[] encode(String tagsJson) {
+        if (StringUtils.isBlank(tagsJson)) {
+            return new int[0];
+        }
+        return tagDictionary.encode(TagList.parse(tagsJson));
+    }
+
+    /**
+     * 画像变更监听器，在持有存储锁时被回调，实现中不应执行耗时操作
+     */
+    public interface Listener {
+
+        /**
+         * 用户画像发生变更
+         *
+         * @param userId 用户 id
+         * @param oldProfile 变更前的标签 id 数组，新增时为 null
+         * @param newProfile 变更后的标签 id 数组，移除时为 null
+         */
+        void onProfileChanged(long userId, int[] oldProfile, int[] newProfile);
+
+        /**
+         * 订阅时的画像回放结束，在此之后收到的都是实时变更
+         */
+        default void onReplayFinished() {
+        }
+    }
+
+    /**
+     * 画像快照：下标 [0, size) 内的槽位有效，profiles[i] 为 null 表示该用户当前没有标签
+     */
+    public static final class Snapshot {
+
+        private final long[] userIds;
+
+        private final int[][] profiles;
+
+        private final int size;
+
+        Snapshot(long[] userIds, int[][] profiles, int size) {
+            this.userIds = userIds;
+            this.profiles = profiles;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long userId(int slot) {
+            return userIds[slot];
+        }
+
+        public int[] profile(int slot) {
+            return profiles[slot];
+        }
+    }
+}
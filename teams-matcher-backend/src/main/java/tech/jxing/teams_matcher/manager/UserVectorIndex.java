@@ -0,0 +1,279 @@
+package tech.jxing.teams_matcher.manager;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tech.jxing.teams_matcher.config.UserMatchProperties;
+import tech.jxing.teams_matcher.model.enums.MatchModeEnum;
+import tech.jxing.teams_matcher.utils.HnswIndex;
+import tech.jxing.teams_matcher.utils.TagClosure;
+import tech.jxing.teams_matcher.utils.TopKCollector;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户标签向量索引
+ * 每个标签 id 对应一个由固定种子生成的随机向量，用户向量为其标签向量的（IDF 加权）和再归一化，
+ * 两个用户向量的余弦相似度近似反映标签集合的加权重合程度，与标签的先后顺序无关。
+ * 启用层级感知时，每个标签的祖先标签以一半的权重计入，使拥有同一父标签的用户彼此靠近。
+ * 用户向量存放在 HNSW 近似最近邻索引中，随画像变更增量更新。
+ * 启动时先统计全部用户的标签分布，再按完整的逆文档频率构建向量，向量不依赖用户的加载顺序。
+ * 画像变更回调持有存储锁，回调中只更新标签分布并登记待更新的用户，
+ * 向量的计算与 HNSW 写入由索引独占的写入线程在锁外完成；同一用户尚未写入的多次变更只写入最新的标签。
+ * 仅在匹配模式为 HNSW 时构建
+ *
+ * @author JunXing
+ */
+@Component
+@Slf4j
+public class UserVectorIndex implements UserTagProfileStore.Listener {
+
+    /**
+     * 余弦距离转换为整数分数时的放大倍数（分数越小越相似）
+     */
+    public static final int SCORE_SCALE = 10000;
+
+    private static final long TAG_VECTOR_SEED = 20240409L;
+
+    @Resource
+    private UserTagProfileStore userTagProfileStore;
+
+    @Resource
+    private UserMatchProperties userMatchProperties;
+
+    @Resource
+    private TagHierarchy tagHierarchy;
+
+    private HnswIndex hnswIndex;
+
+    private int dimension;
+
+    private boolean idfWeighting;
+
+    /**
+     * 标签 id -> 拥有该标签的用户数量，仅在画像变更回调（持有存储锁）中写入
+     */
+    private final Map<Integer, Integer> documentFrequency = new ConcurrentHashMap<>();
+
+    private volatile int userCount = 0;
+
+    /**
+     * 订阅时回放的用户（用户 id 与去重后的标签），回放结束后统一构建向量；仅在画像变更回调中访问
+     */
+    private List<Map.Entry<Long, int[]>> replayed = new ArrayList<>();
+
+    /**
+     * 用户 id -> 待写入索引的最新标签，写入线程取出后计算向量并写入
+     */
+    private final Map<Long, int[]> pendingUpdates = new ConcurrentHashMap<>();
+
+    /**
+     * 索引写入线程：只有一个线程，按画像变更的先后顺序写入
+     */
+    private ExecutorService writer;
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        UserMatchProperties.Hnsw hnsw = userMatchProperties.getHnsw();
+        dimension = hnsw.getDimension();
+        idfWeighting = hnsw.isIdfWeighting();
+        hnswIndex = new HnswIndex(dimension, hnsw.getM(), hnsw.getEfConstruction(), TAG_VECTOR_SEED);
+        writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "user-vector-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        userTagProfileStore.subscribe(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return MatchModeEnum.HNSW.equals(userMatchProperties.getMode());
+    }
+
+    @Override
+    public void onProfileChanged(long userId, int[] oldProfile, int[] newProfile) {
+        int[] oldTags = distinct(oldProfile);
+        int[] newTags = distinct(newProfile);
+        for (int tagId : oldTags) {
+            documentFrequency.merge(tagId, -1, Integer::sum);
+        }
+        for (int tagId : newTags) {
+            documentFrequency.merge(tagId, 1, Integer::sum);
+        }
+        userCount += (newTags.length > 0 ? 1 : 0) - (oldTags.length > 0 ? 1 : 0);
+        if (replayed != null) {
+            // 回放中标签分布尚不完整，只统计文档频率，回放结束后再构建向量
+            replayed.add(new AbstractMap.SimpleImmutableEntry<>(userId, newTags));
+            return;
+        }
+        // 已有待写入的任务时只替换标签，由该任务写入最新的标签
+        if (pendingUpdates.put(userId, newTags) == null) {
+            writer.execute(() -> applyPendingUpdate(userId));
+        }
+    }
+
+    @Override
+    public void onReplayFinished() {
+        List<Map.Entry<Long, int[]>> users = replayed;
+        replayed = null;
+        // 在写入线程中构建，不阻塞启动时的画像写入；之后的实时变更排在其后
+        writer.execute(() -> {
+            long start = System.currentTimeMillis();
+            for (Map.Entry<Long, int[]> user : users) {
+                update(user.getKey(), user.getValue());
+            }
+            log.info("user vector index built, users: {}, cost: {} ms", hnswIndex.size(), System.currentTimeMillis() - start);
+        });
+    }
+
+    private void applyPendingUpdate(long userId) {
+        int[] newTags = pendingUpdates.remove(userId);
+        if (newTags == null) {
+            return;
+        }
+        try {
+            update(userId, newTags);
+        } catch (Exception e) {
+            log.error("update user vector error, userId: {}", userId, e);
+        }
+    }
+
+    private void update(long userId, int[] newTags) {
+        float[] vector = vectorize(newTags);
+        if (vector == null) {
+            hnswIndex.remove(userId);
+        } else {
+            hnswIndex.put(userId, vector);
+        }
+    }
+
+    /**
+     * 查询与目标标签画像最相似的前 num 个用户
+     *
+     * @param target 目标用户的标签 id 数组
+     * @param excludeUserId 需要排除的用户 id
+     * @param num 需要返回的用户数量
+     * @return 按余弦距离从小到大排列的用户 id 及其分数（距离 * {@link #SCORE_SCALE}）
+     */
+    public List<TopKCollector.Entry<Long>> search(int[] target, long excludeUserId, int num) {
+        float[] query = vectorize(distinct(target));
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        int efSearch = userMatchProperties.getHnsw().getEfSearch();
+        List<HnswIndex.Neighbor> neighbors = hnswIndex.search(query, num, efSearch, excludeUserId);
+        TopKCollector<Long> topK = new TopKCollector<>(num);
+        for (int rank = 0; rank < neighbors.size(); rank++) {
+            HnswIndex.Neighbor neighbor = neighbors.get(rank);
+            topK.offer(neighbor.getKey(), Math.round(neighbor.getDistance() * SCORE_SCALE), rank);
+        }
+        return topK.toSortedList();
+    }
+
+    /**
+     * 将去重后的标签 id 转换为归一化向量
+     *
+     * @return 归一化向量，没有标签时返回 null
+     */
+    private float[] vectorize(int[] tags) {
+        if (tags.length == 0) {
+            return null;
+        }
+        float[] vector = new float[dimension];
+        TagClosure closure = userMatchProperties.isHierarchyAware() ? tagHierarchy.closure() : null;
+        for (int tagId : tags) {
+            float weight = weight(tagId);
+            addTagVector(vector, tagId, weight);
+            if (closure != null) {
+                for (int ancestorId : closure.ancestors(tagId)) {
+                    addTagVector(vector, ancestorId, weight / 2);
+                }
+            }
+        }
+        float norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        norm = (float) Math.sqrt(norm);
+        for (int i = 0; i < dimension; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+
+    /**
+     * 将标签对应的随机向量按权重累加到 vector 上
+     */
+    private void addTagVector(float[] vector, int tagId, float weight) {
+        long state = TAG_VECTOR_SEED ^ ((long) tagId << 32);
+        for (int i = 0; i < dimension; i++) {
+            state += 0x9e3779b97f4a7c15L;
+            // 取高 24 位映射到 [-1, 1)
+            vector[i] += weight * ((mix(state) >>> 40) / (float) (1 << 23) - 1f);
+        }
+    }
+
+    /**
+     * 标签权重：平滑后的逆文档频率。
+     * 启动时的向量按完整的标签分布计算；之后写入的向量使用写入时的分布，标签分布的变化不会回溯影响已写入的向量
+     */
+    private float weight(int tagId) {
+        if (!idfWeighting) {
+            return 1f;
+        }
+        int df = Math.max(0, documentFrequency.getOrDefault(tagId, 0));
+        return (float) (Math.log((1.0 + userCount) / (1.0 + df)) + 1);
+    }
+
+    /**
+     * 标签集合去重（标签向量按集合求和，重复标签不重复计入）
+     */
+    private static int[] distinct(int[] profile) {
+        if (profile == null || profile.length == 0) {
+            return new int[0];
+        }
+        int[] sorted = profile.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * SplitMix64 的混淆函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
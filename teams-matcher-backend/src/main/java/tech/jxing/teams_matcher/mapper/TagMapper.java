@@ -0,0 +1,17 @@
+package tech.jxing.teams_matcher.mapper;
+
+import tech.jxing.teams_matcher.model.domain.Tag;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+* @author JunXing
+* @description 针对表【tag(标签)】的数据库操作Mapper
+* @Entity tech.jxing.teams_matcher.model.domain.Tag
+*/
+public interface TagMapper extends BaseMapper<Tag> {
+
+}
+
+
+
+
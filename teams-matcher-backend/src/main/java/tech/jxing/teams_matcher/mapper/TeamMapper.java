@@ -1,8 +1,12 @@
 package tech.jxing.teams_matcher.mapper;
 
+import org.apache.ibatis.annotations.Param;
 import tech.jxing.teams_matcher.model.domain.Team;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
+import java.util.Date;
+import java.util.List;
+
 /**
 * @author JunXing
 * @description 针对表【team(队伍)】的数据库操作Mapper
@@ -11,8 +15,70 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface TeamMapper extends BaseMapper<Team> {
 
-}
+    /**
+     * 查询并锁定队伍行（SELECT ... FOR UPDATE），同一队伍的退出、解散与加入（条件更新成员数）在此排队
+     *
+     * @param teamId 队伍 id
+     * @return 队伍，不存在或已删除时为 null
+     */
+    Team selectByIdForUpdate(@Param("teamId") long teamId);
+
+    /**
+     * 已加入的用户数 + 1（同时校验队伍是否已满）
+     *
+     * @param teamId 队伍 id
+     * @return 更新行数，队伍不存在或已满时为 0
+     */
+    int incrementMemberCount(@Param("teamId") long teamId);
 
+    /**
+     * 已加入的用户数 - 1
+     *
+     * @param teamId 队伍 id
+     * @return 更新行数
+     */
+    int decrementMemberCount(@Param("teamId") long teamId);
 
+    /**
+     * 查询已加入的用户数与 user_team 表不一致的队伍
+     *
+     * @param fromId 队伍 id 下界（不含）
+     * @param toId 队伍 id 上界（含）
+     * @return 不一致的队伍 id
+     */
+    List<Long> selectMemberCountDriftTeamIds(@Param("fromId") long fromId, @Param("toId") long toId);
 
+    /**
+     * 按 user_team 表重新统计一批队伍已加入的用户数（一条 UPDATE 语句）
+     *
+     * @param teamIds 队伍 id，不能为空
+     * @return 更新行数
+     */
+    int repairMemberCount(@Param("teamIds") List<Long> teamIds);
 
+    /**
+     * 查询更新时间不早于 since 的队伍（包括已逻辑删除的队伍），只查询搜索索引需要的字段
+     *
+     * @param since 起始更新时间
+     * @return 队伍 id、名称、描述与删除标记
+     */
+    List<Team> selectSearchFieldsUpdatedSince(@Param("since") Date since);
+
+    /**
+     * 标记队伍已过期
+     *
+     * @param teamId 队伍 id
+     * @param now 当前时间，过期时间不晚于该时间的队伍才会被标记
+     * @return 更新行数，队伍不存在、已删除、已标记或尚未到期时为 0
+     */
+    int markExpired(@Param("teamId") long teamId, @Param("now") Date now);
+
+    /**
+     * 查询已到达过期时间但尚未标记的队伍（按过期时间升序）
+     *
+     * @param now 当前时间
+     * @param limit 最多返回的数量
+     * @return 队伍 id
+     */
+    List<Long> selectExpiredTeamIds(@Param("now") Date now, @Param("limit") int limit);
+}
@@ -1,8 +1,14 @@
 package tech.jxing.teams_matcher.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 import tech.jxing.teams_matcher.model.domain.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
+import java.util.List;
+
 /**
 * @author JunXing
 * @description 针对表【user.sql(用户)】的数据库操作Mapper
@@ -10,8 +16,30 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface UserMapper extends BaseMapper<User> {
 
-}
-
-
+    /**
+     * 流式查询用户：按固定的 fetchSize 分批从数据库读取，每读到一行回调一次，不在内存中保留完整的结果列表。
+     * 不会自动追加逻辑删除条件，需要在查询条件中自行指定；
+     * MySQL 需要在 JDBC URL 中开启 useCursorFetch 才会按 fetchSize 分批读取
+     *
+     * @param queryWrapper 查询条件，可通过 select 指定查询的列
+     * @param resultHandler 逐行处理查询结果
+     */
+    void selectStream(@Param(Constants.WRAPPER) Wrapper<User> queryWrapper, ResultHandler<User> resultHandler);
 
+    /**
+     * 锁定用户行（SELECT ... FOR UPDATE），同一用户的并发事务在此排队，直到持锁事务结束
+     *
+     * @param userId 用户 id
+     * @return 用户 id，用户不存在或已删除时为 null
+     */
+    Long selectIdForUpdate(@Param("userId") long userId);
 
+    /**
+     * 按 id 升序查询下一批用户的 id、标签与删除标记，包含已逻辑删除的用户
+     *
+     * @param cursor 上一批最后一个用户的 id
+     * @param limit 每批数量
+     * @return 用户列表（仅包含 id、tags、isDelete）
+     */
+    List<User> selectTagsAfterId(@Param("cursor") long cursor, @Param("limit") int limit);
+}
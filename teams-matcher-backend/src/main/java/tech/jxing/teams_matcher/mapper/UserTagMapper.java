@@ -0,0 +1,26 @@
+package tech.jxing.teams_matcher.mapper;
+
+import org.apache.ibatis.annotations.Param;
+import tech.jxing.teams_matcher.model.domain.UserTag;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import java.util.List;
+
+/**
+* @author JunXing
+* @description 针对表【user_tag(用户标签关系)】的数据库操作Mapper
+* @Entity tech.jxing.teams_matcher.model.domain.UserTag
+*/
+public interface UserTagMapper extends BaseMapper<UserTag> {
+
+    /**
+     * 查询拥有所有指定标签的用户 id（按 id 升序）
+     * 每个分组为一个查询条件，拥有分组中任意一个标签即满足该条件
+     *
+     * @param tagNameGroupList 标签名分组列表
+     * @param expanded 是否存在包含多个标签的分组；为 false 时使用 COUNT(DISTINCT tagName) = n 判断
+     * @return 用户 id 列表
+     */
+    List<Long> selectUserIdsHavingAllTags(@Param("tagNameGroupList") List<List<String>> tagNameGroupList,
+                                         @Param("expanded") boolean expanded);
+}
@@ -0,0 +1,61 @@
+package tech.jxing.teams_matcher.model.domain;
+
+import com.baomidou.mybatisplus.annotation.*;
+
+import java.io.Serializable;
+import java.util.Date;
+import lombok.Data;
+
+/**
+ * 标签
+ * @author JunXing
+ * @TableName tag
+ */
+@TableName(value ="tag")
+@Data
+public class Tag implements Serializable {
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 标签名称
+     */
+    private String tagName;
+
+    /**
+     * 用户 id
+     */
+    private Long userId;
+
+    /**
+     * 父标签 id
+     */
+    private Long parentId;
+
+    /**
+     * 0-不是 / 1-是
+     */
+    private Integer isParent;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    /**
+     * 是否删除
+     */
+    @TableLogic
+    private Integer isDelete;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
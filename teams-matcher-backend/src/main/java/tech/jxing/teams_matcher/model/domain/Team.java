@@ -38,11 +38,21 @@ public class Team implements Serializable {
      */
     private Integer maxNum;
 
+    /**
+     * 已加入的用户数（由加入、退出、解散队伍时原子更新，定时任务按 user_team 表校正）
+     */
+    private Integer memberCount;
+
     /**
      * 过期时间
      */
     private Date expireTime;
 
+    /**
+     * 是否已过期（0 - 未过期，1 - 已过期），到达过期时间后由过期调度器标记
+     */
+    private Integer isExpired;
+
     /**
      * 用户id
      */
@@ -1,6 +1,8 @@
 package tech.jxing.teams_matcher.model.domain;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import tech.jxing.teams_matcher.utils.TagList;
 
 import java.io.Serializable;
 import java.util.Date;
@@ -11,7 +13,7 @@ import lombok.Data;
  * @author JunXing
  * @TableName user
  */
-@TableName(value ="user")
+@TableName(value ="user", resultMap = "BaseResultMap")
 @Data
 public class User implements Serializable {
     /**
@@ -86,6 +88,36 @@ public class User implements Serializable {
      */
     private String tags;
 
+    /**
+     * 解析后的标签列表（不可变，内容相同的标签列表共享同一实例），查询时由 TagListTypeHandler 填充
+     */
+    @TableField(exist = false)
+    @JsonIgnore
+    private TagList tagList;
+
     @TableField(exist = false)
     private static final long serialVersionUID = 1L;
-}
\ No newline at end of file
+
+    public void setTags(String tags) {
+        this.tags = tags;
+        // 标签 JSON 被修改后，解析结果在下次读取时重新生成
+        this.tagList = null;
+    }
+
+    /**
+     * 写入解析后的标签列表，tags 保留数据库中的原始字符串不变
+     */
+    public void setTagList(TagList tagList) {
+        this.tagList = tagList;
+    }
+
+    /**
+     * 获取解析后的标签列表，标签 JSON 为空或格式错误时返回 null
+     */
+    public TagList getTagList() {
+        if (tagList == null && tags != null) {
+            tagList = TagList.tryParse(tags);
+        }
+        return tagList;
+    }
+}
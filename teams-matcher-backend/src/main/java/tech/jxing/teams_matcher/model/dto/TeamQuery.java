@@ -56,4 +56,9 @@ public class TeamQuery extends PageRequest {
      * 0 - 公开，1 - 私有，2 - 加密
      */
     private Integer status;
+
+    /**
+     * 游标分页的游标（上一页返回的 nextCursor），为空时从第一页开始
+     */
+    private String cursor;
 }
@@ -0,0 +1,41 @@
+package tech.jxing.teams_matcher.model.dto;
+
+import lombok.Data;
+import tech.jxing.teams_matcher.model.enums.TeamWriteTypeEnum;
+
+import java.io.Serializable;
+
+/**
+ * 队伍写入命令：由负责该队伍的写入线程执行，跨节点转发时需要序列化
+ *
+ * @author JunXing
+ */
+@Data
+public class TeamWriteCommand implements Serializable {
+
+    private static final long serialVersionUID = 3712504185190386147L;
+
+    /**
+     * 命令类型
+     */
+    private TeamWriteTypeEnum type;
+
+    /**
+     * 队伍id
+     */
+    private Long teamId;
+
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    public TeamWriteCommand() {
+    }
+
+    public TeamWriteCommand(TeamWriteTypeEnum type, Long teamId, Long userId) {
+        this.type = type;
+        this.teamId = teamId;
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,16 @@
+package tech.jxing.teams_matcher.model.enums;
+
+/**
+ * 用户匹配模式枚举
+ * @author JunXing
+ */
+public enum MatchModeEnum {
+    /**
+     * EXACT 精确匹配：与所有用户计算编辑距离
+     * LSH 近似匹配：通过 MinHash/LSH 分桶生成候选用户，只对候选用户计算编辑距离
+     * HNSW 向量匹配：将标签集合转换为向量，通过 HNSW 近似最近邻索引查询余弦距离最近的用户（与标签顺序无关）
+     */
+    EXACT,
+    LSH,
+    HNSW
+}
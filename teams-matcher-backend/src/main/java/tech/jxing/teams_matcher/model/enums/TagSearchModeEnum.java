@@ -0,0 +1,16 @@
+package tech.jxing.teams_matcher.model.enums;
+
+/**
+ * 标签搜索实现方式枚举
+ * @author JunXing
+ */
+public enum TagSearchModeEnum {
+    /**
+     * INDEX 内存倒排索引（位图求交集后按 id 批量回表）
+     * SCAN 全量查询用户后在内存中逐个判断标签
+     * SQL 查询 user_tag 关系表，在数据库中分组求交集后按 id 批量回表
+     */
+    INDEX,
+    SCAN,
+    SQL
+}
@@ -0,0 +1,18 @@
+package tech.jxing.teams_matcher.model.enums;
+
+/**
+ * 加入队伍的并发控制方式枚举
+ * @author JunXing
+ */
+public enum TeamJoinModeEnum {
+    /**
+     * LOCK 获取用户锁与队伍锁后在数据库中校验并写入
+     * REDIS 在 Redis 中用 Lua 脚本原子地完成校验并预占名额，成功后再写入数据库
+     * OPTIMISTIC 不使用分布式锁，由数据库的行锁、条件更新与唯一索引在一个事务中决定结果，冲突时有限次重试
+     * QUEUE 加入与退出命令按队伍交给固定的写入线程排队执行，积压的命令在一个事务中组提交
+     */
+    LOCK,
+    REDIS,
+    OPTIMISTIC,
+    QUEUE
+}
@@ -0,0 +1,14 @@
+package tech.jxing.teams_matcher.model.enums;
+
+/**
+ * 队伍关键词搜索实现方式枚举
+ * @author JunXing
+ */
+public enum TeamSearchModeEnum {
+    /**
+     * INDEX 内存 n-gram 全文索引（按相关度取队伍 id 后批量回表）
+     * LIKE 在数据库中对名称和描述做 LIKE '%关键词%' 匹配
+     */
+    INDEX,
+    LIKE
+}
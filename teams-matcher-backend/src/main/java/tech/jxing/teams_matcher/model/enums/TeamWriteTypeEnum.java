@@ -0,0 +1,14 @@
+package tech.jxing.teams_matcher.model.enums;
+
+/**
+ * 队伍写入队列中的命令类型枚举
+ * @author JunXing
+ */
+public enum TeamWriteTypeEnum {
+    /**
+     * JOIN 加入队伍
+     * QUIT 退出队伍
+     */
+    JOIN,
+    QUIT
+}
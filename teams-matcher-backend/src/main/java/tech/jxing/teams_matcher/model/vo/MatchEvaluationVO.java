@@ -0,0 +1,61 @@
+package tech.jxing.teams_matcher.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 近似匹配与精确匹配的对比结果
+ *
+ * @author JunXing
+ */
+@Data
+public class MatchEvaluationVO implements Serializable {
+
+    private static final long serialVersionUID = 3418215606437281745L;
+
+    /**
+     * 抽样的用户数量
+     */
+    private int sampleSize;
+
+    /**
+     * 每个用户返回的匹配用户数量
+     */
+    private int num;
+
+    /**
+     * LSH 分段数量
+     */
+    private int bands;
+
+    /**
+     * LSH 每段行数
+     */
+    private int rows;
+
+    /**
+     * 平均召回率：近似结果中属于精确结果的比例
+     */
+    private double avgRecall;
+
+    /**
+     * 平均距离误差：近似结果与精确结果的平均编辑距离之差
+     */
+    private double avgDistanceGap;
+
+    /**
+     * 平均候选用户数量
+     */
+    private double avgCandidates;
+
+    /**
+     * 精确匹配平均耗时（毫秒）
+     */
+    private double exactAvgMillis;
+
+    /**
+     * 近似匹配平均耗时（毫秒）
+     */
+    private double lshAvgMillis;
+}
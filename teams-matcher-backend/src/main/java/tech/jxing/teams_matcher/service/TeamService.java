@@ -7,6 +7,7 @@ import tech.jxing.teams_matcher.model.dto.TeamQuery;
 import tech.jxing.teams_matcher.model.request.TeamJoinRequest;
 import tech.jxing.teams_matcher.model.request.TeamQuitRequest;
 import tech.jxing.teams_matcher.model.request.TeamUpdateRequest;
+import tech.jxing.teams_matcher.model.vo.CursorPageVO;
 import tech.jxing.teams_matcher.model.vo.TeamUserVO;
 
 import java.util.List;
@@ -36,6 +37,15 @@ public interface TeamService extends IService<Team> {
      */
     List<TeamUserVO> listTeams(TeamQuery teamQuery, boolean isAdmin);
 
+    /**
+     * 游标分页查询队伍列表，按创建时间倒序，不查询总数
+     *
+     * @param teamQuery 查询条件，cursor 为上一页返回的游标（为空时查询第一页），pageSize 为每页数量
+     * @param isAdmin 是否为管理员
+     * @return 当前页的队伍列表及下一页的游标
+     */
+    CursorPageVO<TeamUserVO> listTeamsByCursor(TeamQuery teamQuery, boolean isAdmin);
+
     /**
      * 更新队伍信息
      *
@@ -2,6 +2,7 @@ package tech.jxing.teams_matcher.service;
 
 import tech.jxing.teams_matcher.model.domain.User;
 import com.baomidou.mybatisplus.extension.service.IService;
+import tech.jxing.teams_matcher.model.vo.MatchEvaluationVO;
 import tech.jxing.teams_matcher.model.vo.UserVO;
 
 import javax.servlet.http.HttpServletRequest;
@@ -91,4 +92,12 @@ public interface UserService extends IService<User> {
      * @return 返回匹配的用户列表
      */
     List<User> matchUsers(long num, User user);
+
+    /**
+     * 抽样对比 LSH 近似匹配与精确匹配的结果
+     * @param sampleSize 抽样用户数量
+     * @param num 每个用户返回的匹配用户数量
+     * @return 对比结果
+     */
+    MatchEvaluationVO evaluateLshMatch(int sampleSize, int num);
 }
@@ -0,0 +1,36 @@
+package tech.jxing.teams_matcher.service;
+
+import tech.jxing.teams_matcher.model.domain.UserTag;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.util.List;
+
+/**
+* @author JunXing
+* @description 针对表【user_tag(用户标签关系)】的数据库操作Service
+*/
+public interface UserTagService extends IService<UserTag> {
+
+    /**
+     * 按用户的标签 JSON 同步用户标签关系（只增删有变化的部分），tag 表中不存在的标签会先插入 tag 表
+     *
+     * @param userId 用户 id
+     * @param tagsJson 用户标签 JSON，为空时删除该用户的所有标签关系
+     */
+    void syncUserTags(long userId, String tagsJson);
+
+    /**
+     * 删除用户的所有标签关系
+     *
+     * @param userId 用户 id
+     */
+    void removeUserTags(long userId);
+
+    /**
+     * 查询拥有所有指定标签的用户 id（按 id 升序）
+     *
+     * @param tagNameGroupList 标签名分组列表，拥有分组中任意一个标签即满足该分组的条件
+     * @return 用户 id 列表
+     */
+    List<Long> searchUserIds(List<List<String>> tagNameGroupList);
+}
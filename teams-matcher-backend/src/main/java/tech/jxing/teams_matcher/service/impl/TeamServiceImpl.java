@@ -2,37 +2,61 @@ package tech.jxing.teams_matcher.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jxing.teams_matcher.common.ErrorCode;
+import tech.jxing.teams_matcher.config.TeamProperties;
 import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.manager.RequestBatchLoaders;
+import tech.jxing.teams_matcher.manager.TeamExpiryScheduler;
+import tech.jxing.teams_matcher.manager.TeamListCache;
+import tech.jxing.teams_matcher.manager.TeamSearchIndex;
+import tech.jxing.teams_matcher.manager.TeamSeatReservation;
+import tech.jxing.teams_matcher.manager.TeamWriteQueue;
 import tech.jxing.teams_matcher.model.domain.Team;
 import tech.jxing.teams_matcher.model.domain.User;
 import tech.jxing.teams_matcher.model.domain.UserTeam;
 import tech.jxing.teams_matcher.model.dto.TeamQuery;
+import tech.jxing.teams_matcher.model.dto.TeamWriteCommand;
+import tech.jxing.teams_matcher.model.enums.TeamJoinModeEnum;
 import tech.jxing.teams_matcher.model.enums.TeamStatusEnum;
+import tech.jxing.teams_matcher.model.enums.TeamWriteTypeEnum;
 import tech.jxing.teams_matcher.model.request.TeamJoinRequest;
 import tech.jxing.teams_matcher.model.request.TeamQuitRequest;
 import tech.jxing.teams_matcher.model.request.TeamUpdateRequest;
+import tech.jxing.teams_matcher.model.vo.CursorPageVO;
 import tech.jxing.teams_matcher.model.vo.TeamUserVO;
 import tech.jxing.teams_matcher.model.vo.UserVO;
 import tech.jxing.teams_matcher.service.TeamService;
 import tech.jxing.teams_matcher.mapper.TeamMapper;
+import tech.jxing.teams_matcher.mapper.UserMapper;
 import org.springframework.stereotype.Service;
 import tech.jxing.teams_matcher.service.UserService;
 import tech.jxing.teams_matcher.service.UserTeamService;
+import tech.jxing.teams_matcher.utils.KeysetCursor;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
 * @author JunXing
@@ -40,6 +64,7 @@ import java.util.concurrent.TimeUnit;
 * @createDate 2024-04-09 10:15:44
 */
 @Service
+@Slf4j
 public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements TeamService{
 
     @Resource
@@ -54,6 +79,55 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
     @Resource
     private RedissonClient redissonClient;
 
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private TeamSearchIndex teamSearchIndex;
+
+    @Resource
+    private TeamListCache teamListCache;
+
+    @Resource
+    private TeamExpiryScheduler teamExpiryScheduler;
+
+    @Resource
+    private TeamProperties teamProperties;
+
+    @Resource
+    private TeamSeatReservation teamSeatReservation;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private TeamWriteQueue teamWriteQueue;
+
+    /**
+     * 加入队伍时的用户锁与队伍锁
+     */
+    private static final String JOIN_TEAM_USER_LOCK_PREFIX = "teamsmatcher:join_team:user:";
+
+    private static final String JOIN_TEAM_TEAM_LOCK_PREFIX = "teamsmatcher:join_team:team:";
+
+    /**
+     * 游标分页每页最大数量
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 50;
+
+    /**
+     * 全文索引的候选队伍在数据库中过滤时每批的 id 数量
+     */
+    private static final int SEARCH_FILTER_BATCH_SIZE = 1000;
+
+    @PostConstruct
+    public void init() {
+        // QUEUE 模式下启动写入线程，命令由本类在写入线程开启的事务中执行
+        if(TeamJoinModeEnum.QUEUE.equals(teamProperties.getJoin().getMode())) {
+            teamWriteQueue.start(this::lockTeamWriteUsers, this::applyTeamWrite);
+        }
+    }
+
     /**
      * 添加队伍及其创建者到数据库。
      * @param team 队伍信息对象，包含队伍的名称、描述、状态等。
@@ -62,7 +136,6 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
      * @throws BusinessException 如果创建过程中出现任何业务规则错误，抛出此异常。
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public Long addTeam(Team team, User loginUser) {
 
         // 队伍最大人数
@@ -116,9 +189,47 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         if(new Date().after(expireTime)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "超时时间不满足要求");
         }
+        final long userId = loginUser.getId();
+        /**
+         * 创建者同时成为队伍成员，与加入队伍共用“最多创建和加入 5 个队伍”的上限：
+         * LOCK 模式下持有与加入队伍相同的用户锁，并在锁内提交事务；事务中锁定用户行，与 OPTIMISTIC、QUEUE 模式的加入排队
+         */
+        RLock lock = TeamJoinModeEnum.LOCK.equals(teamProperties.getJoin().getMode())
+                ? redissonClient.getLock(JOIN_TEAM_USER_LOCK_PREFIX + userId) : null;
+        boolean locked = false;
+        try {
+            if(lock != null) {
+                locked = lock.tryLock(teamProperties.getJoin().getLockWaitMillis(), -1, TimeUnit.MILLISECONDS);
+                if(!locked) {
+                    throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作过于频繁，请稍后重试");
+                }
+            }
+            return transactionTemplate.execute(transactionStatus -> saveTeam(team, userId, maxNumberOfTeamsCreatedByUser));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("get lock failed", e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        } finally {
+            if(locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 在调用方的事务中校验创建与加入数量上限，保存队伍及创建者与队伍的关系
+     *
+     * @param team 队伍信息
+     * @param userId 创建者 id
+     * @param maxNumberOfTeamsCreatedByUser 单个用户队伍创建上限
+     * @return 新创建的队伍 id
+     */
+    private Long saveTeam(Team team, long userId, long maxNumberOfTeamsCreatedByUser) {
+        if(userMapper.selectIdForUpdate(userId) == null) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "用户不存在");
+        }
         // 3.7 校验用户最多创建 5 个队伍
         QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
-        final long userId = loginUser.getId();
         // 设置查询条件，查询与当前用户ID匹配的队伍
         queryWrapper.eq("userId", userId);
         // 计算当前用户创建的队伍数量
@@ -127,10 +238,18 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         if(hasTeamNum >= maxNumberOfTeamsCreatedByUser) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建 5 个队伍");
         }
+        // 3.8 创建者会成为队伍成员，已创建和加入的队伍数量不能超过上限
+        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        userTeamQueryWrapper.eq("userId", userId);
+        if(userTeamService.count(userTeamQueryWrapper) >= TeamSeatReservation.MAX_JOIN_NUM) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入" + TeamSeatReservation.MAX_JOIN_NUM + "个队伍");
+        }
         // 4. 插入队伍信息到队伍表
         // 设置队伍ID为空，以便生成新的ID
         team.setId(null);
         team.setUserId(userId);
+        // 创建者即为第一个成员
+        team.setMemberCount(1);
         boolean result = this.save(team);
         // 获取保存后的队伍ID
         Long teamId = team.getId();
@@ -146,6 +265,11 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         if(!result) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "创建队伍失败");
         }
+        // 事务提交后写入搜索索引、登记过期时间，并使队伍列表缓存失效
+        teamSearchIndex.reindex(teamId);
+        teamExpiryScheduler.schedule(teamId, team.getExpireTime());
+        teamSeatReservation.evictUser(userId);
+        teamListCache.invalidate();
         return teamId;
     }
 
@@ -154,10 +278,143 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
      *
      * @param teamQuery 包含查询条件的对象，可以指定队伍的ID、名称、描述、最大成员数、创建者ID、状态等。
      * @param isAdmin 是否为管理员，管理员可见所有队伍，非管理员只能查看公开队伍。
-     * @return 返回满足查询条件的队伍列表，每个队伍包含基本信息和创建者信息。
+     * @return 返回满足查询条件的队伍列表，每个队伍包含基本信息、创建者信息和已加入的用户数。
      */
     @Override
     public List<TeamUserVO> listTeams(TeamQuery teamQuery, boolean isAdmin) {
+        // 队伍变更后缓存版本号随之递增，不会读到修改前的列表
+        return teamListCache.get(teamQuery, isAdmin, () -> queryTeams(teamQuery, isAdmin));
+    }
+
+    /**
+     * 从数据库查询队伍列表（不经过缓存）
+     *
+     * @param teamQuery 查询条件
+     * @param isAdmin 是否为管理员
+     * @return 队伍列表
+     */
+    private List<TeamUserVO> queryTeams(TeamQuery teamQuery, boolean isAdmin) {
+        List<Long> searchedIds = searchTeamIds(teamQuery, isAdmin);
+        // 全文索引没有命中任何队伍
+        if (searchedIds != null && searchedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        QueryWrapper<Team> queryWrapper = buildTeamQueryWrapper(teamQuery, isAdmin, searchedIds);
+        // 如果查询队伍列表为空，则返回一个空列表
+        List<Team> teamList = this.list(queryWrapper);
+        // 按关键词搜索时，结果按相关度排序
+        if (searchedIds != null) {
+            Map<Long, Integer> rankById = new HashMap<>(searchedIds.size() * 2);
+            for (int rank = 0; rank < searchedIds.size(); rank++) {
+                rankById.put(searchedIds.get(rank), rank);
+            }
+            teamList.sort(Comparator.comparingInt(team -> rankById.get(team.getId())));
+        }
+        return toTeamUserVOList(teamList);
+    }
+
+    /**
+     * 按创建时间倒序游标分页查询队伍列表。
+     * 以 (createTime, id) 为排序键，下一页从上一页最后一条记录之后开始读取，多查一条用于判断是否还有下一页，
+     * 不查询总数，深翻页与第一页的开销相同。按关键词搜索时同样按创建时间排序，只在符合条件且相关度最高的 maxResults 个队伍中分页。
+     *
+     * @param teamQuery 查询条件，cursor 为上一页返回的游标，pageSize 为每页数量
+     * @param isAdmin 是否为管理员
+     * @return 当前页的队伍列表及下一页的游标
+     */
+    @Override
+    public CursorPageVO<TeamUserVO> listTeamsByCursor(TeamQuery teamQuery, boolean isAdmin) {
+        if (teamQuery == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        int pageSize = teamQuery.getPageSize();
+        if (pageSize <= 0 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "每页数量应在 1 到 " + MAX_CURSOR_PAGE_SIZE + " 之间");
+        }
+        CursorPageVO<TeamUserVO> cursorPageVO = new CursorPageVO<>();
+        List<Long> searchedIds = searchTeamIds(teamQuery, isAdmin);
+        if (searchedIds != null && searchedIds.isEmpty()) {
+            return cursorPageVO;
+        }
+        QueryWrapper<Team> queryWrapper = buildTeamQueryWrapper(teamQuery, isAdmin, searchedIds);
+        String cursorToken = teamQuery.getCursor();
+        if (StringUtils.isNotBlank(cursorToken)) {
+            KeysetCursor cursor = KeysetCursor.decode(cursorToken);
+            if (cursor == null) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标格式错误");
+            }
+            Date createTime = new Date(cursor.getCreateTime());
+            // 展开为 OR 形式，MySQL 才能在 (status, createTime, id) 索引上做范围扫描
+            queryWrapper.and(qw -> qw.lt("createTime", createTime)
+                    .or(q -> q.eq("createTime", createTime).lt("id", cursor.getId())));
+        }
+        queryWrapper.isNotNull("createTime");
+        queryWrapper.orderByDesc("createTime", "id");
+        queryWrapper.last("limit " + (pageSize + 1));
+        List<Team> teamList = this.list(queryWrapper);
+        if (teamList.size() > pageSize) {
+            teamList = teamList.subList(0, pageSize);
+            Team last = teamList.get(pageSize - 1);
+            cursorPageVO.setHasMore(true);
+            cursorPageVO.setNextCursor(new KeysetCursor(last.getCreateTime().getTime(), last.getId()).encode());
+        }
+        cursorPageVO.setRecords(toTeamUserVOList(teamList));
+        return cursorPageVO;
+    }
+
+    /**
+     * 使用全文索引按关键词搜索队伍，并在按相关度截取之前应用状态、权限等过滤条件：
+     * 按相关度依次取出候选队伍，分批在数据库中过滤，直到凑满 maxResults 个或候选耗尽，
+     * 相关度更高的私有、已过期队伍不会挤掉符合条件的队伍
+     *
+     * @param teamQuery 查询条件
+     * @param isAdmin 是否为管理员
+     * @return 符合过滤条件、按相关度排列的队伍 id，最多 maxResults 个；未指定关键词或全文索引不可用时返回 null
+     */
+    private List<Long> searchTeamIds(TeamQuery teamQuery, boolean isAdmin) {
+        if (teamQuery == null || StringUtils.isBlank(teamQuery.getSearchText()) || !teamSearchIndex.isReady()) {
+            return null;
+        }
+        int maxResults = teamProperties.getSearch().getMaxResults();
+        List<Long> resultIds = new ArrayList<>();
+        Set<Long> checkedIds = new HashSet<>();
+        int limit = maxResults;
+        while (true) {
+            List<Long> candidateIds = teamSearchIndex.search(teamQuery.getSearchText(), limit);
+            // 两次搜索之间索引可能变化，只过滤尚未检查过的候选
+            List<Long> uncheckedIds = new ArrayList<>();
+            for (Long candidateId : candidateIds) {
+                if (checkedIds.add(candidateId)) {
+                    uncheckedIds.add(candidateId);
+                }
+            }
+            for (int from = 0; from < uncheckedIds.size() && resultIds.size() < maxResults; from += SEARCH_FILTER_BATCH_SIZE) {
+                List<Long> batchIds = uncheckedIds.subList(from, Math.min(from + SEARCH_FILTER_BATCH_SIZE, uncheckedIds.size()));
+                QueryWrapper<Team> queryWrapper = buildTeamQueryWrapper(teamQuery, isAdmin, batchIds);
+                queryWrapper.select("id");
+                Set<Long> matchedIds = this.list(queryWrapper).stream().map(Team::getId).collect(Collectors.toSet());
+                for (Long batchId : batchIds) {
+                    if (matchedIds.contains(batchId) && resultIds.size() < maxResults) {
+                        resultIds.add(batchId);
+                    }
+                }
+            }
+            if (resultIds.size() >= maxResults || candidateIds.size() < limit) {
+                return resultIds;
+            }
+            limit = limit > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : limit * 2;
+        }
+    }
+
+    /**
+     * 根据查询对象构建队伍查询条件（不含排序与分页），已过期的队伍不会被查出
+     *
+     * @param teamQuery 查询条件
+     * @param isAdmin 是否为管理员，非管理员不能查询私有队伍
+     * @param searchedIds 全文索引按关键词搜索到的队伍 id，为 null 时关键词在数据库中模糊匹配
+     * @return 队伍查询条件
+     */
+    private QueryWrapper<Team> buildTeamQueryWrapper(TeamQuery teamQuery, boolean isAdmin, List<Long> searchedIds) {
         QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
         // 根据传入查询对象生成单个或多个的组合查询条件
         if (teamQuery != null) {
@@ -187,7 +444,10 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
             }
             // 处理通过关键字搜索队伍的条件
             String searchText = teamQuery.getSearchText();
-            if(StringUtils.isNotBlank(searchText)) {
+            if(searchedIds != null) {
+                // 全文索引已完成关键词匹配，按 id 批量回表
+                queryWrapper.in("id", searchedIds);
+            } else if(StringUtils.isNotBlank(searchText)) {
                 // 模糊匹配队伍名称或描述
                 queryWrapper.and(qw -> qw.like("name", searchText).or().like("description", searchText));
             }
@@ -214,14 +474,27 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
             }
             queryWrapper.eq("status", statusEnum.getValue());
         }
-        // 不展示已过期队伍
-        queryWrapper.and(qw -> qw.gt("expireTime", new Date()).or().isNull("expireTime"));
-        // 如果查询队伍列表为空，则返回一个空列表
-        List<Team> teamList = this.list(queryWrapper);
+        // 不展示已过期队伍（到期时由过期调度器标记）
+        queryWrapper.eq("isExpired", 0);
+        // 过期调度关闭时不会再有队伍被标记，仍按过期时间过滤
+        if(!teamProperties.getExpiry().isEnabled()) {
+            queryWrapper.and(qw -> qw.gt("expireTime", new Date()).or().isNull("expireTime"));
+        }
+        return queryWrapper;
+    }
+
+    /**
+     * 将队伍列表转换为展示对象，并通过本次调用创建的批量加载器一次性查出所有创建者
+     *
+     * @param teamList 队伍列表
+     * @return 队伍展示对象列表
+     */
+    private List<TeamUserVO> toTeamUserVOList(List<Team> teamList) {
         if(CollectionUtils.isEmpty(teamList)) {
             return new ArrayList<>();
         }
-        // 关联查询队伍列表中的每个队伍的创建者信息
+        // 关联查询队伍列表中的每个队伍的创建者信息：先登记需要的 id，最后用一次 IN 查询加载
+        RequestBatchLoaders requestBatchLoaders = new RequestBatchLoaders(userService, userTeamService);
         List<TeamUserVO> teamUserVOList = new ArrayList<>();
         for (Team team : teamList) {
             Long userId = team.getUserId();
@@ -229,17 +502,20 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
             if(userId == null) {
                 continue;
             }
-            User user = userService.getById(userId);
             TeamUserVO teamUserVO = new TeamUserVO();
             BeanUtils.copyProperties(team, teamUserVO);
-            // 用户信息脱敏
-            if(user != null) {
-                UserVO userVO = new UserVO();
-                BeanUtils.copyProperties(user, userVO);
-                teamUserVO.setCreateUser(userVO);
-            }
+            teamUserVO.setHasJoinNum(team.getMemberCount());
+            requestBatchLoaders.userLoader().load(userId, user -> {
+                // 用户信息脱敏
+                if(user != null) {
+                    UserVO userVO = new UserVO();
+                    BeanUtils.copyProperties(user, userVO);
+                    teamUserVO.setCreateUser(userVO);
+                }
+            });
             teamUserVOList.add(teamUserVO);
         }
+        requestBatchLoaders.dispatchAll();
         return teamUserVOList;
     }
 
@@ -279,8 +555,21 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         // 复制更新请求到新的队伍对象
         Team updateTeam = new Team();
         BeanUtils.copyProperties(teamUpdateRequest, updateTeam);
+        // 修改了过期时间时同步过期标记：延后到未来则恢复为未过期，提前到过去则直接标记为已过期
+        Date expireTime = updateTeam.getExpireTime();
+        if(expireTime != null) {
+            updateTeam.setIsExpired(expireTime.after(new Date()) ? 0 : 1);
+        }
         // 更新队伍信息
-        return this.updateById(updateTeam);
+        boolean result = this.updateById(updateTeam);
+        if(result) {
+            teamSearchIndex.reindex(id);
+            if(expireTime != null) {
+                teamExpiryScheduler.schedule(id, expireTime);
+            }
+            teamListCache.invalidate();
+        }
+        return result;
     }
 
     /**
@@ -301,8 +590,9 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         Long teamId = teamJoinRequest.getTeamId();
         // 根据ID查询队伍信息
         Team team = getTeamById(teamId);
-        // 检查队伍是否过期，只能加入未过期的队伍
-        if(team.getExpireTime() != null && team.getExpireTime().before(new Date())) {
+        // 检查队伍是否过期，只能加入未过期的队伍（过期事件可能尚未处理，仍比较过期时间）
+        if(Integer.valueOf(1).equals(team.getIsExpired())
+                || (team.getExpireTime() != null && team.getExpireTime().before(new Date()))) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已过期");
         }
         // 不可加入私有队伍
@@ -318,55 +608,219 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
                 throw new BusinessException(ErrorCode.PARAMS_ERROR, "密码错误");
             }
         }
+        Long userId = loginUser.getId();
+        // Redis 预占名额：校验与占位一次往返完成，不再需要分布式锁与计数查询
+        if(TeamJoinModeEnum.REDIS.equals(teamProperties.getJoin().getMode())) {
+            return joinTeamByReservation(team, userId);
+        }
+        // 仅依赖数据库：不加分布式锁，Redis 不可用时也能加入队伍
+        if(TeamJoinModeEnum.OPTIMISTIC.equals(teamProperties.getJoin().getMode())) {
+            return joinTeamOptimistic(teamId, userId);
+        }
+        // 交给负责该队伍的写入线程排队执行
+        if(TeamJoinModeEnum.QUEUE.equals(teamProperties.getJoin().getMode())) {
+            return teamWriteQueue.execute(new TeamWriteCommand(TeamWriteTypeEnum.JOIN, teamId, userId));
+        }
         /**
          * 分布式锁解决短时间频繁加入队伍，导致重复加入
+         * 用户锁保护“最多加入 5 个队伍”与“是否已加入”的校验，队伍锁保护满员校验，
+         * 不同用户加入不同队伍时互不阻塞；两把锁总是按“先用户、后队伍”的顺序获取，不会死锁
          */
-        // 检查用户已加入的队伍数量是否达到上限，最多加入5个队伍
-        Long userId = loginUser.getId();
-        RLock lock = redissonClient.getLock("teamsmatcher:join_team");
+        RLock lock = redissonClient.getMultiLock(
+                redissonClient.getLock(JOIN_TEAM_USER_LOCK_PREFIX + userId),
+                redissonClient.getLock(JOIN_TEAM_TEAM_LOCK_PREFIX + teamId));
+        boolean locked = false;
         try {
-            // 尝试获取锁
-            while(true) {
-                if(lock.tryLock(0, -1, TimeUnit.MILLISECONDS)) {
-                    System.out.println("get lock" + Thread.currentThread().getId());
-                    QueryWrapper<UserTeam> userTeamQueryWraper = new QueryWrapper<>();
-                    userTeamQueryWraper.eq("userId", userId);
-                    long hasJoinNum = userTeamService.count(userTeamQueryWraper);
-                    if(hasJoinNum >= 5) {
-                        throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入5个队伍");
-                    }
-                    // 检查用户是否已加入该队伍
-                    userTeamQueryWraper = new QueryWrapper<>();
-                    userTeamQueryWraper.eq("userId", userId);
-                    userTeamQueryWraper.eq("teamId", teamId);
-                    long hasUserJoinTeam = userTeamService.count(userTeamQueryWraper);
-                    if(hasUserJoinTeam > 0) {
-                        throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍");
-                    }
-                    // 检查队伍是否已满员
-                    long teamHasJoinNum = this.countTeamUserByTeamId(teamId);
-                    if(teamHasJoinNum >= team.getMaxNum()) {
-                        throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
-                    }
-                    // 保存用户加入队伍的信息
-                    UserTeam userTeam = new UserTeam();
-                    userTeam.setUserId(userId);
-                    userTeam.setTeamId(teamId);
-                    userTeam.setJoinTime(new Date());
-                    return userTeamService.save(userTeam);
-                }
+            // 阻塞等待锁，超过等待时间仍未获取到则放弃；持有期间由看门狗自动续期
+            locked = lock.tryLock(teamProperties.getJoin().getLockWaitMillis(), -1, TimeUnit.MILLISECONDS);
+            if(!locked) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入队伍的人数过多，请稍后重试");
             }
+            // 在锁内提交事务，释放锁之前成员数与关系表的修改已对其他请求可见
+            return Boolean.TRUE.equals(transactionTemplate.execute(transactionStatus -> {
+                // 检查用户已加入的队伍数量是否达到上限，最多加入5个队伍
+                QueryWrapper<UserTeam> userTeamQueryWraper = new QueryWrapper<>();
+                userTeamQueryWraper.eq("userId", userId);
+                long hasJoinNum = userTeamService.count(userTeamQueryWraper);
+                if(hasJoinNum >= 5) {
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入5个队伍");
+                }
+                // 检查用户是否已加入该队伍
+                userTeamQueryWraper = new QueryWrapper<>();
+                userTeamQueryWraper.eq("userId", userId);
+                userTeamQueryWraper.eq("teamId", teamId);
+                long hasUserJoinTeam = userTeamService.count(userTeamQueryWraper);
+                if(hasUserJoinTeam > 0) {
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍");
+                }
+                // 占用一个名额：成员数 + 1 与满员校验在同一条语句中原子完成
+                if(baseMapper.incrementMemberCount(teamId) == 0) {
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
+                }
+                // 保存用户加入队伍的信息
+                boolean result = saveUserTeam(userId, teamId);
+                // 已加入的用户数变化，事务提交后使队伍列表缓存失效
+                teamListCache.invalidate();
+                return result;
+            }));
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             log.error("get lock failed", e);
             return false;
         } finally {
-            // 只能释放自己的锁
-            if(lock.isHeldByCurrentThread()) {
-                System.out.println("unlock: " + Thread.currentThread().getId());
+            // 只释放自己获取到的锁
+            if(locked) {
                 lock.unlock();
             }
         }
     }
+
+    /**
+     * 通过 Redis 预占名额加入队伍：重复加入、加入数量上限与满员校验由 Lua 脚本原子完成，
+     * 预占成功后在一个事务中更新已加入的用户数并写入关系表，失败时释放预占的名额。
+     * Redis 中用户已加入的队伍集合在创建队伍的事务提交后才失效，事务中仍锁定用户行并按数据库复核加入数量上限，
+     * 与创建队伍在用户行锁上排队，同时创建和加入不会超过上限
+     *
+     * @param team 队伍
+     * @param userId 加入队伍的用户 id
+     * @return 是否加入成功
+     */
+    private boolean joinTeamByReservation(Team team, long userId) {
+        long teamId = team.getId();
+        teamSeatReservation.reserve(userId, team);
+        boolean result = false;
+        try {
+            result = Boolean.TRUE.equals(transactionTemplate.execute(transactionStatus -> {
+                lockUserAndCheckJoinNum(userId);
+                // 满员与否最终以数据库为准，Redis 中的名额与数据库不一致时在这里拦截
+                if(baseMapper.incrementMemberCount(teamId) == 0) {
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
+                }
+                boolean saved = saveUserTeam(userId, teamId);
+                if(!saved) {
+                    transactionStatus.setRollbackOnly();
+                    return false;
+                }
+                teamListCache.invalidate();
+                return true;
+            }));
+            return result;
+        } finally {
+            // 写入数据库失败（包括抛出异常），补偿释放预占的名额；
+            // 名额计数可能已与数据库不一致（例如数据库中队伍已满），一并删除，下次按数据库重新初始化
+            if(!result) {
+                teamSeatReservation.release(userId, teamId);
+                teamSeatReservation.evictTeam(teamId);
+            }
+        }
+    }
+
+    /**
+     * 不使用分布式锁加入队伍，由一个数据库事务决定结果：
+     * 锁定用户行后校验加入数量上限（同一用户的并发加入在行锁上排队），
+     * 条件更新占用名额（满员时更新行数为 0），写入关系表时由唯一索引拦截重复加入。
+     * 事务因死锁或等待行锁超时被数据库回滚时整体重试，超过重试次数后提示稍后重试
+     *
+     * @param teamId 队伍 id
+     * @param userId 加入队伍的用户 id
+     * @return 是否加入成功
+     */
+    private boolean joinTeamOptimistic(long teamId, long userId) {
+        int maxRetries = teamProperties.getJoin().getOptimisticMaxRetries();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return Boolean.TRUE.equals(transactionTemplate.execute(transactionStatus -> applyJoin(teamId, userId)));
+            } catch (ConcurrencyFailureException e) {
+                if(attempt >= maxRetries) {
+                    log.error("join team retries exhausted, userId: {}, teamId: {}", userId, teamId, e);
+                    throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入队伍的人数过多，请稍后重试");
+                }
+            }
+        }
+    }
+
+    /**
+     * 在调用方的事务中加入队伍：锁定用户行后校验加入数量上限，条件更新占用名额，写入关系表（唯一索引拦截重复加入）
+     *
+     * @param teamId 队伍 id
+     * @param userId 加入队伍的用户 id
+     * @return 是否加入成功
+     */
+    private boolean applyJoin(long teamId, long userId) {
+        lockUserAndCheckJoinNum(userId);
+        if(baseMapper.incrementMemberCount(teamId) == 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
+        }
+        // 已加入时唯一索引冲突，事务回滚，占用的名额随之撤销
+        boolean result = saveUserTeam(userId, teamId);
+        teamListCache.invalidate();
+        return result;
+    }
+
+    /**
+     * 在调用方的事务中锁定用户行，并校验用户已创建和加入的队伍数量未达到上限；
+     * 同一用户的加入与创建队伍在行锁上排队，持有行锁后统计，其他已提交的加入与创建对本次统计可见
+     *
+     * @param userId 用户 id
+     */
+    private void lockUserAndCheckJoinNum(long userId) {
+        if(userMapper.selectIdForUpdate(userId) == null) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "用户不存在");
+        }
+        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        userTeamQueryWrapper.eq("userId", userId);
+        if(userTeamService.count(userTeamQueryWrapper) >= TeamSeatReservation.MAX_JOIN_NUM) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入" + TeamSeatReservation.MAX_JOIN_NUM + "个队伍");
+        }
+    }
+
+    /**
+     * 组提交开始时按 id 升序锁定整批加入命令涉及的用户行，
+     * 各写入线程的批次以相同的顺序加锁，不会因为同一用户同时加入不同队伍而互相死锁
+     *
+     * @param commandList 整批写入命令
+     */
+    private void lockTeamWriteUsers(List<TeamWriteCommand> commandList) {
+        commandList.stream()
+                .filter(command -> TeamWriteTypeEnum.JOIN.equals(command.getType()))
+                .map(TeamWriteCommand::getUserId)
+                .distinct()
+                .sorted()
+                .forEach(userMapper::selectIdForUpdate);
+    }
+
+    /**
+     * 执行写入队列中的命令，由写入线程在其开启的事务中调用
+     *
+     * @param command 写入命令
+     * @return 命令的返回值
+     */
+    private Boolean applyTeamWrite(TeamWriteCommand command) {
+        if(TeamWriteTypeEnum.QUIT.equals(command.getType())) {
+            return applyQuit(command.getTeamId(), command.getUserId());
+        }
+        return applyJoin(command.getTeamId(), command.getUserId());
+    }
+
+    /**
+     * 写入用户与队伍的关系，唯一索引冲突（已加入该队伍）时抛出业务异常，调用方所在的事务随之回滚
+     *
+     * @param userId 用户 id
+     * @param teamId 队伍 id
+     * @return 是否写入成功
+     */
+    private boolean saveUserTeam(long userId, long teamId) {
+        UserTeam userTeam = new UserTeam();
+        userTeam.setUserId(userId);
+        userTeam.setTeamId(teamId);
+        userTeam.setJoinTime(new Date());
+        try {
+            return userTeamService.save(userTeam);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍");
+        }
+    }
+
     /**
      * 用户退出队伍接口
      *
@@ -376,16 +830,33 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
      * @throws BusinessException 当参数错误、队伍不存在、用户未加入队伍或系统错误时抛出
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public boolean quitTeam(TeamQuitRequest teamQuitRequest, User loginUser) {
         // 校验请求参数是否为空
         if(teamQuitRequest == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "请求参数为空");
         }
         Long teamId = teamQuitRequest.getTeamId();
-        // 根据ID查询队伍信息
-        Team team = getTeamById(teamId);
-        Long userId = loginUser.getId();
+        if(teamId == null || teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍Id为空");
+        }
+        long userId = loginUser.getId();
+        // 与加入命令一样交给负责该队伍的写入线程排队执行
+        if(TeamJoinModeEnum.QUEUE.equals(teamProperties.getJoin().getMode())) {
+            return teamWriteQueue.execute(new TeamWriteCommand(TeamWriteTypeEnum.QUIT, teamId, userId));
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(transactionStatus -> applyQuit(teamId, userId)));
+    }
+
+    /**
+     * 在调用方的事务中退出队伍：只剩一人时解散队伍，队长退出时转移给最早加入的成员
+     *
+     * @param teamId 队伍 id
+     * @param userId 退出队伍的用户 id
+     * @return 是否退出成功
+     */
+    private boolean applyQuit(long teamId, long userId) {
+        // 锁定队伍行：同一队伍的退出、解散与加入依次执行，成员数、解散判断与队长转移都基于最新的数据
+        Team team = getTeamByIdForUpdate(teamId);
         // 判断用户是否加入了队伍
         UserTeam queryUserTeam = new UserTeam();
         queryUserTeam.setTeamId(teamId);
@@ -395,11 +866,20 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         if(count == 0) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "未加入队伍");
         }
-        // 计算队伍中还剩余的成员数量
-        long teamHasJoinNum = this.countTeamUserByTeamId(teamId);
+        // 队伍中的成员数量，只剩一人时（解散队伍前）再按关系表确认，避免计数偏差导致误解散
+        long teamHasJoinNum = team.getMemberCount();
+        if(teamHasJoinNum <= 1) {
+            teamHasJoinNum = this.countTeamUserByTeamId(teamId);
+        }
+        // 已加入的用户数 - 1，事务提交后释放 Redis 中的名额并使队伍列表缓存失效
+        baseMapper.decrementMemberCount(teamId);
+        teamSeatReservation.release(userId, teamId);
+        teamListCache.invalidate();
         // 队伍还剩一人，直接解散队伍
         if(teamHasJoinNum == 1) {
             this.removeById(teamId);
+            teamSearchIndex.reindex(teamId);
+            teamSeatReservation.evictTeam(teamId);
         } else {
             // 如果队伍中还有多人，判断退出的用户是否为队长
             if(team.getUserId() == userId) {
@@ -441,21 +921,30 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean deleteTeam(long id, User loginUser) {
-        // 校验队伍是否存在
-        Team team = this.getTeamById(id);
+        // 校验队伍是否存在，并锁定队伍行，解散期间其他用户无法加入或退出
+        Team team = this.getTeamByIdForUpdate(id);
         Long teamId = team.getId();
         // 校验用户是否为队长
         if(!team.getUserId().equals(loginUser.getId())) {
             throw new BusinessException(ErrorCode.FORBIDDEN, "禁止解散操作");
         }
-        // 移除所有加入队伍的成员
+        // 移除所有加入队伍的成员，事务提交后删除成员在 Redis 中的队伍集合与该队伍的名额
         QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
         userTeamQueryWrapper.eq("teamId", teamId);
+        userTeamService.list(userTeamQueryWrapper).forEach(userTeam -> teamSeatReservation.evictUser(userTeam.getUserId()));
+        teamSeatReservation.evictTeam(teamId);
         boolean result = userTeamService.remove(userTeamQueryWrapper);
         if(!result) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "删除队伍失败");
         }
-        // 删除队伍
+        // 成员已全部移除，已加入的用户数清零
+        Team clearTeam = new Team();
+        clearTeam.setId(teamId);
+        clearTeam.setMemberCount(0);
+        this.updateById(clearTeam);
+        // 删除队伍，事务提交后从搜索索引中移除，并使队伍列表缓存失效
+        teamSearchIndex.reindex(teamId);
+        teamListCache.invalidate();
         return this.removeById(teamId);
     }
 
@@ -478,7 +967,23 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
     }
 
     /**
-     * 获取队伍的当前人数
+     * 校验队伍是否存在并锁定队伍行，需要在事务中调用
+     * @param teamId 队伍Id
+     * @return 队伍信息
+     */
+    private Team getTeamByIdForUpdate(Long teamId) {
+        if(teamId == null || teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍Id为空");
+        }
+        Team team = baseMapper.selectByIdForUpdate(teamId);
+        if(team == null) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "队伍不存在");
+        }
+        return team;
+    }
+
+    /**
+     * 获取队伍的当前人数（按 user_team 表统计）
      * @param teamId 队伍Id
      * @return 队伍的当前人数
      */
@@ -488,6 +993,3 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         return userTeamService.count(userTeamQueryWraper);
     }
 }
-
-
-
@@ -2,23 +2,37 @@ package tech.jxing.teams_matcher.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.math3.util.Pair;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.DigestUtils;
 import tech.jxing.teams_matcher.common.ErrorCode;
 import tech.jxing.teams_matcher.model.domain.User;
 import tech.jxing.teams_matcher.exception.BusinessException;
 import tech.jxing.teams_matcher.service.UserService;
+import tech.jxing.teams_matcher.service.UserTagService;
+import tech.jxing.teams_matcher.config.TagSearchProperties;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.TagHierarchy;
+import tech.jxing.teams_matcher.manager.UserMatchCache;
+import tech.jxing.teams_matcher.manager.UserMatchEngine;
+import tech.jxing.teams_matcher.manager.UserTagInvertedIndex;
+import tech.jxing.teams_matcher.manager.UserTagProfileStore;
+import tech.jxing.teams_matcher.model.enums.TagSearchModeEnum;
+import tech.jxing.teams_matcher.model.vo.MatchEvaluationVO;
 import tech.jxing.teams_matcher.mapper.UserMapper;
 import org.springframework.stereotype.Service;
 import tech.jxing.teams_matcher.utils.AlgorithmUtils;
+import tech.jxing.teams_matcher.utils.TagList;
+import tech.jxing.teams_matcher.utils.TopKCollector;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
+import java.io.Serializable;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +54,30 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private UserTagProfileStore userTagProfileStore;
+
+    @Resource
+    private UserMatchEngine userMatchEngine;
+
+    @Resource
+    private UserMatchCache userMatchCache;
+
+    @Resource
+    private UserTagInvertedIndex userTagInvertedIndex;
+
+    @Resource
+    private TagSearchProperties tagSearchProperties;
+
+    @Resource
+    private TagDictionary tagDictionary;
+
+    @Resource
+    private TagHierarchy tagHierarchy;
+
+    @Resource
+    private UserTagService userTagService;
+
     /**
      * 定义盐值
      */
@@ -93,6 +131,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if(!saveResult){
             return -1;
         }
+        // 同步用户标签画像
+        userTagProfileStore.put(user.getId(), user.getTags());
         // 返回用户 id
         return user.getId();
     }
@@ -173,7 +213,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     }
 
     /**
-     * 根据标签搜索用户 [内存查询]
+     * 根据标签搜索用户
      *
      * @param tagNameList 用户拥有的标签
      * @return 符合标签的用户
@@ -183,23 +223,111 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if(CollectionUtils.isEmpty(tagNameList)){
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-        //1.全量查询
+        if(TagSearchModeEnum.SCAN.equals(tagSearchProperties.getMode())) {
+            return searchUserByTagsByScan(tagNameList);
+        }
+        if(TagSearchModeEnum.SQL.equals(tagSearchProperties.getMode())) {
+            return searchUserByTagsBySql(tagNameList);
+        }
+        return searchUserByTagsByIndex(tagNameList);
+    }
+
+    /**
+     * 根据标签搜索用户 [关系表]
+     * 在 user_tag 关系表上按用户分组求交集，再按 id 分批回表查询用户信息
+     *
+     * @param tagNameList 用户拥有的标签
+     * @return 符合标签的用户
+     */
+    private List<User> searchUserByTagsBySql(List<String> tagNameList) {
+        List<List<String>> tagNameGroupList = tagNameList.stream()
+                .distinct()
+                .map(tagName -> (List<String>) new ArrayList<>(expandTagName(tagName)))
+                .collect(Collectors.toList());
+        return listSafetyUsersByIds(userTagService.searchUserIds(tagNameGroupList));
+    }
+
+    /**
+     * 根据标签搜索用户 [倒排索引]
+     * 在内存倒排索引中对各标签的用户位图求交集，再按 id 分批回表查询用户信息
+     *
+     * @param tagNameList 用户拥有的标签
+     * @return 符合标签的用户
+     */
+    private List<User> searchUserByTagsByIndex(List<String> tagNameList) {
+        Roaring64NavigableMap userIdBitmap = userTagInvertedIndex.searchAll(tagNameList);
+        List<Long> userIdList = new ArrayList<>();
+        LongIterator iterator = userIdBitmap.getLongIterator();
+        while (iterator.hasNext()) {
+            userIdList.add(iterator.next());
+        }
+        return listSafetyUsersByIds(userIdList);
+    }
+
+    /**
+     * 按 id 分批回表查询脱敏后的用户信息
+     *
+     * @param userIdList 升序排列的用户 id
+     * @return 按 id 升序排列的用户
+     */
+    private List<User> listSafetyUsersByIds(List<Long> userIdList) {
+        List<User> resultList = new ArrayList<>(userIdList.size());
+        for (List<Long> batchIdList : ListUtils.partition(userIdList, tagSearchProperties.getFetchBatchSize())) {
+            // 已被删除的用户会被逻辑删除条件过滤掉
+            userMapper.selectBatchIds(batchIdList).stream()
+                    .sorted(Comparator.comparing(User::getId))
+                    .map(this::getSafetyUser)
+                    .forEach(resultList::add);
+        }
+        return resultList;
+    }
+
+    /**
+     * 根据标签搜索用户 [内存查询]
+     *
+     * @param tagNameList 用户拥有的标签
+     * @return 符合标签的用户
+     */
+    private List<User> searchUserByTagsByScan(List<String> tagNameList) {
+        // 每个查询标签可接受的标签名（启用层级扩展时包括其子孙标签）
+        List<Set<String>> acceptedTagNameSetList = tagNameList.stream()
+                .map(this::expandTagName)
+                .collect(Collectors.toList());
+        //1. 流式查询全部有标签的用户，逐行判断是否含有指定的标签，只保留符合条件的用户
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        List<User> userList = userMapper.selectList(queryWrapper);
-        //2. 反序列化：把 json 转为 java 对象
-        Gson gson = new Gson();
-        //3. 在内存中判断是否包含是否含有指定的标签
-        return userList.stream().filter(user -> {
-            String tagsStr = user.getTags();
-            Set<String> tempTagNameSet = gson.fromJson(tagsStr, new TypeToken<Set<String>>(){}.getType());
-            tempTagNameSet = Optional.ofNullable(tempTagNameSet).orElse(new HashSet<>());
-            for(String tagName : tagNameList) {
-                if(!tempTagNameSet.contains(tagName)){
-                    return false;
+        queryWrapper.eq("isDelete", 0);
+        queryWrapper.isNotNull("tags");
+        List<User> resultList = new ArrayList<>();
+        userMapper.selectStream(queryWrapper, context -> {
+            User user = context.getResultObject();
+            //2. 标签 JSON 已在结果映射时解析为标签列表
+            List<String> tempTagNameList = Optional.<List<String>>ofNullable(user.getTagList()).orElse(TagList.EMPTY);
+            for(Set<String> acceptedTagNameSet : acceptedTagNameSetList) {
+                if(Collections.disjoint(tempTagNameList, acceptedTagNameSet)){
+                    return;
                 }
             }
-            return true;
-        }).map(this::getSafetyUser).collect(Collectors.toList());
+            resultList.add(getSafetyUser(user));
+        });
+        return resultList;
+    }
+
+    /**
+     * 获取查询标签可接受的标签名：标签自身，启用层级扩展时再加上其全部子孙标签
+     *
+     * @param tagName 查询标签
+     * @return 可接受的标签名集合
+     */
+    private Set<String> expandTagName(String tagName) {
+        Set<String> tagNameSet = new HashSet<>();
+        tagNameSet.add(tagName);
+        int tagId = tagDictionary.getId(tagName);
+        if(tagSearchProperties.isExpandDescendants() && tagId != TagDictionary.UNKNOWN_ID) {
+            for(int descendantId : tagHierarchy.closure().descendants(tagId)) {
+                tagNameSet.add(tagDictionary.getName(descendantId));
+            }
+        }
+        return tagNameSet;
     }
 
     /**
@@ -208,7 +336,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      * @param user 需要更新的用户对象。
      * @param loginUser 当前登录的用户对象。
      * @return 更新成功返回更新行数，失败抛出异常。
-     * @throws BusinessException 如果用户ID不合法、用户无权限进行更新操作或用户不存在时抛出异常。
+     * @throws BusinessException 如果用户ID不合法、用户无权限进行更新操作或用户不存在或标签格式错误时抛出异常。
      */
     @Override
     public int updateUser(User user, User loginUser) {
@@ -230,7 +358,69 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if(oldUser == null) {
             throw new BusinessException(ErrorCode.NULL_ERROR);
         }
-        return userMapper.updateById(user);
+        // 写库之前校验标签 JSON，格式错误的标签不能写入数据库，否则内存画像与各索引无法同步
+        TagList tagList = null;
+        if(user.getTags() != null) {
+            try {
+                tagList = TagList.parse(user.getTags());
+            } catch (JsonParseException e) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "标签格式错误");
+            }
+        }
+        int result = userMapper.updateById(user);
+        // 标签发生修改时，同步更新内存中的用户标签画像
+        if(result > 0 && user.getTags() != null) {
+            userTagProfileStore.put(userId, tagList);
+            // 用户自身标签变化后，预计算的匹配结果已失效
+            userMatchCache.evict(userId);
+            syncUserTagRelation(userId, user.getTags());
+        }
+        return result;
+    }
+
+    /**
+     * 双写 user_tag 关系表
+     * 迁移期间 user.tags 仍是标签的权威数据，关系表写入失败只记录日志，由回填任务修复
+     *
+     * @param userId 用户 id
+     * @param tags 用户标签 JSON
+     */
+    private void syncUserTagRelation(long userId, String tags) {
+        try {
+            userTagService.syncUserTags(userId, tags);
+        } catch (Exception e) {
+            log.error("sync user tag relation error, userId: {}", userId, e);
+        }
+    }
+
+    /**
+     * 删除用户时同步移除其标签画像与标签关系
+     *
+     * @param id 用户 id
+     * @return 是否删除成功
+     */
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        if(result) {
+            long userId = Long.parseLong(id.toString());
+            userTagProfileStore.remove(userId);
+            removeUserTagRelation(userId);
+        }
+        return result;
+    }
+
+    /**
+     * 删除用户的 user_tag 关系，失败时只记录日志，由回填任务清理
+     *
+     * @param userId 用户 id
+     */
+    private void removeUserTagRelation(long userId) {
+        try {
+            userTagService.removeUserTags(userId);
+        } catch (Exception e) {
+            log.error("remove user tag relation error, userId: {}", userId, e);
+        }
     }
 
     @Override
@@ -281,48 +471,21 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      */
     @Override
     public List<User> matchUsers(long num, User loginUser) {
-        // 设置查询条件，只查询标签不为空的用户
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.select("id", "tags");
-        queryWrapper.isNotNull("tags");
-        // 获取所有用户列表
-        List<User> userList = this.list(queryWrapper);
-        // 获取登录用户的标签，并转换为列表
-        String tags = loginUser.getTags();
-        Gson gson = new Gson();
-        List<String> tagsList = gson.fromJson(tags, new TypeToken<List<String>>(){}.getType());
-
-        List<Pair<User, Long>> list = new ArrayList<>();
-
-        // 计算所有用户与登录用户的标签匹配度
-        for (int i = 0; i < userList.size(); i++) {
-            User user = userList.get(i);
-            String userTags = user.getTags();
-            // 跳过没有标签的用户和当前登录用户
-            if(StringUtils.isBlank(userTags) || user.getId().equals(loginUser.getId())) {
-                continue;
-            }
-            // 将用户标签转换为列表进行匹配度计算
-            List<String> userTagsList = gson.fromJson(userTags, new TypeToken<List<String>>(){}.getType());
-            // 计算当前用户与登录用户的标签匹配度
-            long distance = AlgorithmUtils.miniDistance(tagsList, userTagsList);
-            // 保存匹配用户的用户信息和匹配度到list中
-            list.add(new Pair<>(user, distance));
-        }
-        // 根据匹配度排序，选择前num个匹配度最高的用户
-        List<Pair<User, Long>> topUserPairList = list.stream()
-                /**
-                 * 若差值为正数，表示a.getValue()大于b.getValue()，此时a应排在b后面；
-                 * 若差值为负数，表示a.getValue()小于b.getValue()，此时a应排在b前面；
-                 */
-                .sorted((a, b) -> (int)(a.getValue() - b.getValue()))
-                .limit(num)
-                .collect(Collectors.toList());
-        // 原本顺序的 userId 列表
-        // 获取最终需要返回的用户ID列表
-        List<Long> userIdList = topUserPairList.stream()
-                .map(pair -> pair.getKey().getId())
-                .collect(Collectors.toList());
+        // 优先读取预计算的匹配结果
+        List<Long> userIdList = userMatchCache.get(loginUser.getId(), num);
+        if(userIdList == null) {
+            // 未命中时实时计算：将登录用户的标签编码为标签 id 数组
+            int[] loginUserTags = userTagProfileStore.encode(loginUser.getTags());
+            // 在内存中的用户标签画像上计算匹配度，选出匹配度最高的前 num 个用户
+            List<TopKCollector.Entry<Long>> topUserList = userMatchEngine.match(loginUserTags, loginUser.getId(), (int) num);
+            // 按匹配度从高到低获取最终需要返回的用户ID列表
+            userIdList = topUserList.stream()
+                    .map(TopKCollector.Entry::getItem)
+                    .collect(Collectors.toList());
+        }
+        if(userIdList.isEmpty()) {
+            return new ArrayList<>();
+        }
         // 根据用户ID列表查询用户信息，确保用户数据完整
         QueryWrapper<User> userQueryWrapper = new QueryWrapper();
         userQueryWrapper.in("id", userIdList);
@@ -343,12 +506,17 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
          */
         List<User> finalUserList = new ArrayList<>();
         for (Long userId : userIdList) {
-            finalUserList.add(userIdUserListMap.get(userId).get(0));
+            // 画像与数据库之间可能存在短暂不一致，忽略已不存在的用户
+            List<User> users = userIdUserListMap.get(userId);
+            if(users != null) {
+                finalUserList.add(users.get(0));
+            }
         }
         return finalUserList;
     }
-}
-
-
-
 
+    @Override
+    public MatchEvaluationVO evaluateLshMatch(int sampleSize, int num) {
+        return userMatchEngine.evaluateLsh(sampleSize, num);
+    }
+}
@@ -0,0 +1,115 @@
+package tech.jxing.teams_matcher.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jxing.teams_matcher.mapper.TagMapper;
+import tech.jxing.teams_matcher.model.domain.Tag;
+import tech.jxing.teams_matcher.model.domain.UserTag;
+import tech.jxing.teams_matcher.service.UserTagService;
+import tech.jxing.teams_matcher.utils.TagList;
+import tech.jxing.teams_matcher.mapper.UserTagMapper;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.*;
+
+/**
+* @author JunXing
+* @description 针对表【user_tag(用户标签关系)】的数据库操作Service实现
+*/
+@Service
+public class UserTagServiceImpl extends ServiceImpl<UserTagMapper, UserTag>
+    implements UserTagService{
+
+    @Resource
+    private TagMapper tagMapper;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void syncUserTags(long userId, String tagsJson) {
+        Set<Long> newTagIdSet = resolveTagIds(userId, TagList.parse(tagsJson));
+        // 查询已有的标签关系，只增删有变化的部分
+        QueryWrapper<UserTag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagId");
+        queryWrapper.eq("userId", userId);
+        List<UserTag> oldUserTagList = this.list(queryWrapper);
+        List<Long> removeIdList = new ArrayList<>();
+        for (UserTag userTag : oldUserTagList) {
+            // 剩下的即为需要新增的标签
+            if (!newTagIdSet.remove(userTag.getTagId())) {
+                removeIdList.add(userTag.getId());
+            }
+        }
+        if (!removeIdList.isEmpty()) {
+            this.removeByIds(removeIdList);
+        }
+        if (!newTagIdSet.isEmpty()) {
+            List<UserTag> addList = new ArrayList<>(newTagIdSet.size());
+            for (Long tagId : newTagIdSet) {
+                UserTag userTag = new UserTag();
+                userTag.setUserId(userId);
+                userTag.setTagId(tagId);
+                addList.add(userTag);
+            }
+            this.saveBatch(addList);
+        }
+    }
+
+    @Override
+    public void removeUserTags(long userId) {
+        QueryWrapper<UserTag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("userId", userId);
+        this.remove(queryWrapper);
+    }
+
+    @Override
+    public List<Long> searchUserIds(List<List<String>> tagNameGroupList) {
+        boolean expanded = tagNameGroupList.stream().anyMatch(tagNameGroup -> tagNameGroup.size() > 1);
+        return baseMapper.selectUserIdsHavingAllTags(tagNameGroupList, expanded);
+    }
+
+    /**
+     * 将标签名解析为 tag 表 id，同名标签有多条时取 id 最小的一条，不存在的标签插入 tag 表
+     *
+     * @param userId 标签的创建用户 id
+     * @param tagNameList 标签名列表
+     * @return 标签 id 集合
+     */
+    private Set<Long> resolveTagIds(long userId, List<String> tagNameList) {
+        Set<String> tagNameSet = new LinkedHashSet<>();
+        if (tagNameList != null) {
+            for (String tagName : tagNameList) {
+                if (StringUtils.isNotBlank(tagName)) {
+                    tagNameSet.add(tagName);
+                }
+            }
+        }
+        Set<Long> tagIdSet = new HashSet<>();
+        if (tagNameSet.isEmpty()) {
+            return tagIdSet;
+        }
+        QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagName");
+        queryWrapper.in("tagName", tagNameSet);
+        queryWrapper.orderByAsc("id");
+        Map<String, Long> tagIdByName = new HashMap<>();
+        for (Tag tag : tagMapper.selectList(queryWrapper)) {
+            tagIdByName.putIfAbsent(tag.getTagName(), tag.getId());
+        }
+        for (String tagName : tagNameSet) {
+            Long tagId = tagIdByName.get(tagName);
+            if (tagId == null) {
+                Tag tag = new Tag();
+                tag.setTagName(tagName);
+                tag.setUserId(userId);
+                tag.setIsParent(0);
+                tagMapper.insert(tag);
+                tagId = tag.getId();
+            }
+            tagIdSet.add(tagId);
+        }
+        return tagIdSet;
+    }
+}
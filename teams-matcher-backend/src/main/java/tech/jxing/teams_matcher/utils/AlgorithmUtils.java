@@ -10,6 +10,16 @@ import java.util.Objects;
  */
 public class AlgorithmUtils {
 
+    /**
+     * 编辑距离计算使用的线程本地滚动数组（两行）
+     */
+    private static final ThreadLocal<int[][]> SCRATCH_ROWS = ThreadLocal.withInitial(() -> new int[2][32]);
+
+    /**
+     * 层级感知编辑距离使用的线程本地区间数组（进入序号、最大进入序号）
+     */
+    private static final ThreadLocal<int[][]> SCRATCH_INTERVALS = ThreadLocal.withInitial(() -> new int[2][32]);
+
     /**
      * 编辑距离算法
      * @param tagList1 用户的标签列表
@@ -46,4 +56,203 @@ public class AlgorithmUtils {
         }
         return d[n][m];
     }
+
+    /**
+     * 编辑距离算法（标签 id 版本）
+     * 标签已通过标签字典编码为整数 id，比较时无需字符串哈希与 equals
+     *
+     * @param tags1 用户的标签 id 数组
+     * @param tags2 待匹配的用户的标签 id 数组
+     * @return 编辑距离
+     */
+    public static int miniDistance(int[] tags1, int[] tags2) {
+        int n = tags1.length;
+        int m = tags2.length;
+
+        if(n * m == 0) {
+            return n + m;
+        }
+
+        int[][] d = new int[n + 1][m + 1];
+        for(int i = 0; i < n + 1; i++) {
+            d[i][0] = i;
+        }
+
+        for(int j = 0; j < m + 1; j++) {
+            d[0][j] = j;
+        }
+
+        for(int i = 1; i < n + 1; i++) {
+            for(int j = 1; j < m + 1; j++) {
+                int left = d[i - 1][j] + 1;
+                int down = d[i][j - 1] + 1;
+                int left_down = d[i - 1][j - 1];
+                if(tags1[i - 1] != tags2[j - 1]){
+                    left_down += 1;
+                }
+                d[i][j] = Math.min(left, Math.min(down, left_down));
+            }
+        }
+        return d[n][m];
+    }
+
+    /**
+     * 带上界剪枝的编辑距离算法（标签 id 版本）
+     * 1. 只使用两行滚动数组，数组来自线程本地缓存，不会为每对用户分配矩阵
+     * 2. 只计算对角线附近 |i - j| <= bound 的带状区域（Ukkonen 剪枝），带外的格子距离必然超过上界
+     * 3. 一旦某一行所有格子都超过上界，最终距离不可能不超过上界，提前返回
+     *
+     * @param tags1 用户的标签 id 数组
+     * @param tags2 待匹配的用户的标签 id 数组
+     * @param bound 距离上界（通常为当前第 K 名的距离减一）
+     * @return 编辑距离；若距离超过上界，返回 Integer.MAX_VALUE
+     */
+    public static int boundedMiniDistance(int[] tags1, int[] tags2, int bound) {
+        int n = tags1.length;
+        int m = tags2.length;
+        if(bound < 0 || Math.abs(n - m) > bound) {
+            return Integer.MAX_VALUE;
+        }
+        if(n * m == 0) {
+            return n + m;
+        }
+        // 超出上界的格子统一记为 big，避免溢出
+        int big = bound == Integer.MAX_VALUE ? Integer.MAX_VALUE : bound + 1;
+
+        int[][] rows = SCRATCH_ROWS.get();
+        if(rows[0].length < m + 1) {
+            rows = new int[][]{new int[m + 1], new int[m + 1]};
+            SCRATCH_ROWS.set(rows);
+        }
+        int[] prev = rows[0];
+        int[] cur = rows[1];
+        for(int j = 0; j < m + 1; j++) {
+            prev[j] = j <= bound ? j : big;
+        }
+
+        for(int i = 1; i < n + 1; i++) {
+            // 当前行需要计算的带状区间 [lo, hi]
+            int lo = bound >= i - 1 ? 1 : i - bound;
+            int hi = bound >= m - i ? m : i + bound;
+            int rowMin = big;
+            if(lo == 1) {
+                cur[0] = i <= bound ? i : big;
+                rowMin = cur[0];
+            } else {
+                cur[lo - 1] = big;
+            }
+            for(int j = lo; j <= hi; j++) {
+                int left = Math.min(prev[j] + 1, big);
+                int down = Math.min(cur[j - 1] + 1, big);
+                int left_down = prev[j - 1];
+                if(tags1[i - 1] != tags2[j - 1]){
+                    left_down = Math.min(left_down + 1, big);
+                }
+                int value = Math.min(left, Math.min(down, left_down));
+                cur[j] = value;
+                if(value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if(hi < m) {
+                cur[hi + 1] = big;
+            }
+            // 整行都超过上界，提前结束
+            if(rowMin > bound) {
+                return Integer.MAX_VALUE;
+            }
+            int[] temp = prev;
+            prev = cur;
+            cur = temp;
+        }
+        return prev[m] <= bound ? prev[m] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 层级感知的带上界编辑距离算法（标签 id 版本）
+     * 以半个单位计分：插入、删除、替换为无关标签记 2，替换为祖先/子孙标签记 1（部分匹配），相同标签记 0（不论是否在闭包中）。
+     * 剪枝方式与 {@link #boundedMiniDistance(int[], int[], int)} 相同，带宽为 bound / 2；
+     * 计算前先取出每个标签在闭包中的子树区间，层级关系只需比较局部变量中的区间端点（标签 id 均为非负数）
+     *
+     * @param tags1 用户的标签 id 数组
+     * @param tags2 待匹配的用户的标签 id 数组
+     * @param bound 距离上界（半单位）
+     * @param closure 标签层级闭包
+     * @return 编辑距离（半单位）；若距离超过上界，返回 Integer.MAX_VALUE
+     */
+    public static int boundedHierarchyDistance(int[] tags1, int[] tags2, int bound, TagClosure closure) {
+        int n = tags1.length;
+        int m = tags2.length;
+        if(bound < 0 || 2L * Math.abs(n - m) > bound) {
+            return Integer.MAX_VALUE;
+        }
+        if(n * m == 0) {
+            return 2 * (n + m);
+        }
+        int big = bound == Integer.MAX_VALUE ? Integer.MAX_VALUE : bound + 1;
+        // 每次插入或删除记 2，|i - j| 超过 bound / 2 的格子必然超过上界
+        int band = bound / 2;
+
+        int[][] rows = SCRATCH_ROWS.get();
+        if(rows[0].length < m + 1) {
+            rows = new int[][]{new int[m + 1], new int[m + 1]};
+            SCRATCH_ROWS.set(rows);
+        }
+        int[] prev = rows[0];
+        int[] cur = rows[1];
+        for(int j = 0; j < m + 1; j++) {
+            prev[j] = j <= band ? 2 * j : big;
+        }
+        int[][] intervals = SCRATCH_INTERVALS.get();
+        if(intervals[0].length < m) {
+            intervals = new int[][]{new int[m], new int[m]};
+            SCRATCH_INTERVALS.set(intervals);
+        }
+        int[] enter2 = intervals[0];
+        int[] exit2 = intervals[1];
+        for(int j = 0; j < m; j++) {
+            enter2[j] = closure.enter(tags2[j]);
+            exit2[j] = closure.exit(tags2[j]);
+        }
+
+        for(int i = 1; i < n + 1; i++) {
+            int lo = band >= i - 1 ? 1 : i - band;
+            int hi = band >= m - i ? m : i + band;
+            int rowMin = big;
+            if(lo == 1) {
+                cur[0] = i <= band ? 2 * i : big;
+                rowMin = cur[0];
+            } else {
+                cur[lo - 1] = big;
+            }
+            int tag1 = tags1[i - 1];
+            int enter1 = closure.enter(tag1);
+            int exit1 = closure.exit(tag1);
+            for(int j = lo; j <= hi; j++) {
+                int left = Math.min(prev[j] + 2, big);
+                int down = Math.min(cur[j - 1] + 2, big);
+                // 子树区间要么嵌套要么不相交：有交集即为相同或祖先/子孙标签。
+                // 替换代价全部用算术计算，避免随机的层级关系导致分支预测失败
+                int overlap = ~(Math.min(exit1, exit2[j - 1]) - Math.max(enter1, enter2[j - 1])) >>> 31;
+                int same = ((tag1 ^ tags2[j - 1]) - 1) >>> 31;
+                // 超出闭包范围的标签区间为空，相同标签也不重叠，因此按 overlap | same 计入部分匹配
+                int left_down = Math.min(prev[j - 1] + 2 - (overlap | same) - same, big);
+                int value = Math.min(left, Math.min(down, left_down));
+                cur[j] = value;
+                if(value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if(hi < m) {
+                cur[hi + 1] = big;
+            }
+            if(rowMin > bound) {
+                return Integer.MAX_VALUE;
+            }
+            int[] temp = prev;
+            prev = cur;
+            cur = temp;
+        }
+        return prev[m] <= bound ? prev[m] : Integer.MAX_VALUE;
+    }
 }
@@ -0,0 +1,115 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.apache.commons.collections4.ListUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 批量加载器
+ * 组装结果时先通过 {@link #load(Object, Consumer)} 登记需要的 key 与回调，不立即查询；
+ * 调用 {@link #dispatch()} 时把所有待加载的 key 去重后合并为一次（按批大小拆分）批量查询，再依次执行回调。
+ * 已加载的结果会缓存在加载器中，之后对相同 key 的加载不再查询。
+ * 非线程安全，应在单次请求内使用
+ *
+ * @author JunXing
+ */
+public class BatchLoader<K, V> {
+
+    /**
+     * 批量查询函数：传入去重后的 key，返回 key -> 值，不存在的 key 可以不返回
+     */
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+
+    /**
+     * key 不存在时回调收到的值
+     */
+    private final V defaultValue;
+
+    private final int maxBatchSize;
+
+    private final Map<K, V> cache = new HashMap<>();
+
+    /**
+     * 待加载的 key -> 回调列表，保持登记顺序
+     */
+    private final Map<K, List<Consumer<V>>> pending = new LinkedHashMap<>();
+
+    private int batchCount = 0;
+
+    public BatchLoader(Function<Collection<K>, Map<K, V>> batchFunction, V defaultValue, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.batchFunction = batchFunction;
+        this.defaultValue = defaultValue;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 登记需要加载的 key，结果在 {@link #dispatch()} 时通过回调返回；已缓存的 key 立即回调
+     *
+     * @param key 需要加载的 key，为 null 时直接以默认值回调
+     * @param callback 加载完成后的回调
+     */
+    public void load(K key, Consumer<V> callback) {
+        if (key == null) {
+            callback.accept(defaultValue);
+            return;
+        }
+        if (cache.containsKey(key)) {
+            callback.accept(cache.get(key));
+            return;
+        }
+        pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(callback);
+    }
+
+    /**
+     * 立即加载单个 key（会一并加载此前登记的其他 key）
+     *
+     * @param key 需要加载的 key
+     * @return 加载结果，不存在时返回默认值
+     */
+    public V get(K key) {
+        List<V> holder = new ArrayList<>(1);
+        load(key, holder::add);
+        dispatch();
+        return holder.get(0);
+    }
+
+    /**
+     * 批量查询所有待加载的 key，并执行对应的回调
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<K, List<Consumer<V>>> current = new LinkedHashMap<>(pending);
+        pending.clear();
+        for (List<K> batchKeys : ListUtils.partition(new ArrayList<>(current.keySet()), maxBatchSize)) {
+            Map<K, V> result = batchFunction.apply(batchKeys);
+            batchCount++;
+            for (K key : batchKeys) {
+                cache.put(key, result.getOrDefault(key, defaultValue));
+            }
+        }
+        // 回调中可能登记新的 key，留到下一次 dispatch 处理
+        current.forEach((key, callbacks) -> {
+            V value = cache.get(key);
+            callbacks.forEach(callback -> callback.accept(value));
+        });
+    }
+
+    /**
+     * 已执行的批量查询次数
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+}
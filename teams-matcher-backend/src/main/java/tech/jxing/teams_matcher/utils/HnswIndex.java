@@ -0,0 +1,549 @@
+package tech.jxing.teams_matcher.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ * 向量需预先归一化，距离为余弦距离 1 - a·b。
+ * 每个节点随机分配层数，高层稀疏、低层稠密，查询时自顶向下贪心逼近，再在第 0 层做宽度为 ef 的最佳优先搜索，
+ * 复杂度约为 O(log N)。
+ * 支持增量写入：已存在的 key 原地替换向量并重新建立连接；删除只做标记，被删除节点仍参与导航但不会出现在结果中。
+ * 写操作互斥，读操作共享
+ *
+ * @author JunXing
+ */
+public class HnswIndex {
+
+    private final int dimension;
+
+    /**
+     * 第 1 层及以上每个节点的最大连接数
+     */
+    private final int m;
+
+    /**
+     * 第 0 层每个节点的最大连接数
+     */
+    private final int maxM0;
+
+    private final int efConstruction;
+
+    private final double levelMultiplier;
+
+    private final Random random;
+
+    private final Map<Long, Integer> nodeByKey = new HashMap<>();
+
+    private long[] keys = new long[1024];
+
+    private float[][] vectors = new float[1024][];
+
+    /**
+     * links[node][level]：节点在该层的邻居，元素为（距离，邻居节点）编码，按距离升序排列
+     */
+    private long[][][] links = new long[1024][][];
+
+    private final BitSet deleted = new BitSet();
+
+    private int size = 0;
+
+    private int deletedCount = 0;
+
+    private int entryPoint = -1;
+
+    private int maxLevel = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 每个线程一张访问标记表，通过递增代数避免每次搜索都清空
+     */
+    private final ThreadLocal<VisitedTable> visitedTables = ThreadLocal.withInitial(VisitedTable::new);
+
+    /**
+     * @param dimension 向量维度
+     * @param m 每个节点的最大连接数（第 0 层为 2m）
+     * @param efConstruction 构建时的搜索宽度，越大图质量越高、写入越慢
+     * @param seed 层数随机种子
+     */
+    public HnswIndex(int dimension, int m, int efConstruction, long seed) {
+        if (dimension <= 0 || m < 2 || efConstruction <= 0) {
+            throw new IllegalArgumentException("invalid hnsw parameters");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * 写入或更新向量
+     *
+     * @param key 向量对应的 key
+     * @param vector 归一化后的向量
+     */
+    public void put(long key, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("vector dimension mismatch");
+        }
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeByKey.get(key);
+            if (node != null) {
+                vectors[node] = vector;
+                if (deleted.get(node)) {
+                    deleted.clear(node);
+                    deletedCount--;
+                }
+                connect(node, links[node].length - 1);
+                return;
+            }
+            int newNode = size;
+            if (newNode == keys.length) {
+                keys = Arrays.copyOf(keys, newNode * 2);
+                vectors = Arrays.copyOf(vectors, newNode * 2);
+                links = Arrays.copyOf(links, newNode * 2);
+            }
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            keys[newNode] = key;
+            vectors[newNode] = vector;
+            links[newNode] = new long[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[newNode][l] = new long[0];
+            }
+            size = newNode + 1;
+            nodeByKey.put(key, newNode);
+            connect(newNode, level);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除向量（标记删除）
+     *
+     * @param key 向量对应的 key
+     */
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeByKey.get(key);
+            if (node != null && !deleted.get(node)) {
+                deleted.set(node);
+                deletedCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询与目标向量最近的 k 个向量
+     *
+     * @param query 归一化后的目标向量
+     * @param k 返回数量
+     * @param ef 第 0 层的搜索宽度，越大召回率越高、查询越慢
+     * @param excludeKey 需要排除的 key
+     * @return 按距离从小到大排列的结果
+     */
+    public List<Neighbor> search(float[] query, int k, int ef, long excludeKey) {
+        lock.readLock().lock();
+        try {
+            List<Neighbor> result = new ArrayList<>(k);
+            if (entryPoint < 0) {
+                return result;
+            }
+            int ep = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                ep = greedyClosest(query, ep, l, -1);
+            }
+            // 多取一个，给被排除的 key 留出位置
+            long[] candidates = searchLayer(query, ep, Math.max(ef, k + 1), 0, -1);
+            for (long code : candidates) {
+                int node = nodeOf(code);
+                if (deleted.get(node) || keys[node] == excludeKey) {
+                    continue;
+                }
+                result.add(new Neighbor(keys[node], distanceOf(code)));
+                if (result.size() == k) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前有效（未被删除）的向量数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 为节点在 [0, level] 各层上建立（或重建）连接
+     */
+    private void connect(int node, int level) {
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        float[] vector = vectors[node];
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l, node);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            long[] candidates = searchLayer(vector, ep, efConstruction, l, node);
+            if (candidates.length == 0) {
+                continue;
+            }
+            long[] selected = selectNeighbors(candidates, maxLinks(l));
+            links[node][l] = selected;
+            for (long code : selected) {
+                // 余弦距离是对称的，反向连接直接复用已算出的距离
+                addLink(nodeOf(code), node, l, distanceOf(code));
+            }
+            ep = nodeOf(candidates[0]);
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    /**
+     * 为 from 节点添加指向 to 节点的连接（已存在时更新距离）。
+     * 超出上限时只淘汰一个邻居：从最远的邻居开始，淘汰第一个“离某个更近的邻居比离 from 更近”的邻居（方向冗余），
+     * 都不冗余时淘汰最远的邻居。相比每次整体重新挑选，通常只需少量距离计算
+     */
+    private void addLink(int from, int to, int level, float distance) {
+        long[] current = links[from][level];
+        long code = encode(distance, to);
+        int length = current.length;
+        long[] updated = new long[length + 1];
+        int count = 0;
+        boolean inserted = false;
+        for (long neighbor : current) {
+            if (nodeOf(neighbor) == to) {
+                continue;
+            }
+            if (!inserted && code < neighbor) {
+                updated[count++] = code;
+                inserted = true;
+            }
+            updated[count++] = neighbor;
+        }
+        if (!inserted) {
+            updated[count++] = code;
+        }
+        if (count <= maxLinks(level)) {
+            links[from][level] = count == updated.length ? updated : Arrays.copyOf(updated, count);
+            return;
+        }
+        int victim = count - 1;
+        search:
+        for (int i = count - 1; i > 0; i--) {
+            float[] candidate = vectors[nodeOf(updated[i])];
+            float candidateDistance = distanceOf(updated[i]);
+            for (int j = 0; j < i; j++) {
+                if (distance(candidate, vectors[nodeOf(updated[j])]) < candidateDistance) {
+                    victim = i;
+                    break search;
+                }
+            }
+        }
+        long[] pruned = new long[count - 1];
+        System.arraycopy(updated, 0, pruned, 0, victim);
+        System.arraycopy(updated, victim + 1, pruned, victim, count - 1 - victim);
+        links[from][level] = pruned;
+    }
+
+    /**
+     * 启发式选择邻居：优先保留与已选邻居方向不同的候选，使连接覆盖更多方向；
+     * 不足 maxCount 个时再用被跳过的候选按距离补齐（相同标签的用户向量完全相同，补齐可以保证连通性）
+     *
+     * @param candidates 按距离升序排列的候选
+     * @return 选中的候选，按距离升序排列
+     */
+    private long[] selectNeighbors(long[] candidates, int maxCount) {
+        long[] selected = new long[Math.min(maxCount, candidates.length)];
+        int count = 0;
+        boolean[] skipped = new boolean[candidates.length];
+        for (int i = 0; i < candidates.length && count < selected.length; i++) {
+            float[] candidate = vectors[nodeOf(candidates[i])];
+            float candidateDistance = distanceOf(candidates[i]);
+            boolean good = true;
+            for (int j = 0; j < count; j++) {
+                if (distance(candidate, vectors[nodeOf(selected[j])]) < candidateDistance) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) {
+                selected[count++] = candidates[i];
+            } else {
+                skipped[i] = true;
+            }
+        }
+        for (int i = 0; i < candidates.length && count < selected.length; i++) {
+            if (skipped[i]) {
+                selected[count++] = candidates[i];
+            }
+        }
+        Arrays.sort(selected);
+        return selected;
+    }
+
+    /**
+     * 在指定层上贪心移动到离目标最近的节点
+     */
+    private int greedyClosest(float[] query, int ep, int level, int excludeNode) {
+        int current = ep;
+        float currentDistance = current == excludeNode ? Float.MAX_VALUE : distance(query, vectors[current]);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            long[] neighbors = level < links[current].length ? links[current][level] : new long[0];
+            for (long neighborCode : neighbors) {
+                int neighbor = nodeOf(neighborCode);
+                if (neighbor == excludeNode) {
+                    continue;
+                }
+                float d = distance(query, vectors[neighbor]);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在指定层上做宽度为 ef 的最佳优先搜索
+     *
+     * @return 按距离升序排列的结果编码（见 {@link #encode(float, int)}）
+     */
+    private long[] searchLayer(float[] query, int ep, int ef, int level, int excludeNode) {
+        VisitedTable visited = visitedTables.get();
+        visited.reset(size);
+        LongHeap candidates = new LongHeap(ef * 2);
+        // 结果集为大顶堆，存入编码的相反数
+        LongHeap results = new LongHeap(ef + 1);
+        long start = encode(distance(query, vectors[ep]), ep);
+        visited.visit(ep);
+        candidates.push(start);
+        if (ep != excludeNode) {
+            results.push(-start);
+        }
+        while (!candidates.isEmpty()) {
+            long current = candidates.pop();
+            if (results.size() >= ef && distanceOf(current) > distanceOf(-results.peek())) {
+                break;
+            }
+            int currentNode = nodeOf(current);
+            long[][] nodeLinks = links[currentNode];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            for (long neighborCode : nodeLinks[level]) {
+                int neighbor = nodeOf(neighborCode);
+                if (!visited.visit(neighbor)) {
+                    continue;
+                }
+                long code = encode(distance(query, vectors[neighbor]), neighbor);
+                if (results.size() < ef || code < -results.peek()) {
+                    candidates.push(code);
+                    if (neighbor != excludeNode) {
+                        results.push(-code);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        long[] sorted = new long[results.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = -results.pop();
+        }
+        return sorted;
+    }
+
+    private float distance(float[] a, float[] b) {
+        // 四路累加打断加法依赖链，便于 JIT 流水线化
+        float dot0 = 0, dot1 = 0, dot2 = 0, dot3 = 0;
+        int i = 0;
+        for (; i + 3 < dimension; i += 4) {
+            dot0 += a[i] * b[i];
+            dot1 += a[i + 1] * b[i + 1];
+            dot2 += a[i + 2] * b[i + 2];
+            dot3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < dimension; i++) {
+            dot0 += a[i] * b[i];
+        }
+        float dot = (dot0 + dot1) + (dot2 + dot3);
+        // 浮点误差可能使点积略大于 1，距离截断到非负以便编码
+        return Math.max(0f, 1f - dot);
+    }
+
+    /**
+     * 将非负距离与节点编号编码为一个 long：非负浮点数的位模式与数值大小顺序一致，
+     * 编码值的大小顺序即为（距离，节点编号）的字典序
+     */
+    private static long encode(float distance, int node) {
+        return ((long) Float.floatToIntBits(distance) << 32) | node;
+    }
+
+    private static int nodeOf(long code) {
+        return (int) code;
+    }
+
+    private static float distanceOf(long code) {
+        return Float.intBitsToFloat((int) (code >>> 32));
+    }
+
+    /**
+     * 查询结果
+     */
+    public static class Neighbor {
+
+        private final long key;
+
+        private final float distance;
+
+        Neighbor(long key, float distance) {
+            this.key = key;
+            this.distance = distance;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public float getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * 基于 long 数组的小顶堆
+     */
+    private static class LongHeap {
+
+        private long[] heap;
+
+        private int size = 0;
+
+        LongHeap(int capacity) {
+            heap = new long[Math.max(capacity, 4)];
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = i * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * 访问标记表：marks[node] == generation 表示本次搜索已访问
+     */
+    private static class VisitedTable {
+
+        private int[] marks = new int[0];
+
+        private int generation = 0;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * @return true - 首次访问；false - 已访问过
+         */
+        boolean visit(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package tech.jxing.teams_matcher.utils;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 键集分页游标（不可变）
+ * 记录上一页最后一条记录的排序键 (createTime, id)，下一页从该位置之后继续读取，
+ * 数据库只需沿索引定位到该位置再向后扫描 pageSize 条，不受页码深度影响。
+ * 对外以 URL 安全的 Base64 字符串传递，调用方不应依赖其内部格式
+ *
+ * @author JunXing
+ */
+@Getter
+public final class KeysetCursor {
+
+    private static final int VERSION = 1;
+
+    /**
+     * 版本号 1 字节 + 创建时间 8 字节 + id 8 字节
+     */
+    private static final int ENCODED_BYTES = 17;
+
+    /**
+     * 创建时间（毫秒）
+     */
+    private final long createTime;
+
+    private final long id;
+
+    public KeysetCursor(long createTime, long id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    /**
+     * 编码为不透明的游标字符串
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.put((byte) VERSION).putLong(createTime).putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param token 游标字符串
+     * @return 游标，格式错误时返回 null
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != ENCODED_BYTES || bytes[0] != VERSION) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, ENCODED_BYTES - 1);
+        long createTime = buffer.getLong();
+        long id = buffer.getLong();
+        if (createTime < 0 || id <= 0) {
+            return null;
+        }
+        return new KeysetCursor(createTime, id);
+    }
+}
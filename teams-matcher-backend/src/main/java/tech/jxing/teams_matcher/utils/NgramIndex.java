@@ -0,0 +1,325 @@
+package tech.jxing.teams_matcher.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于字符 n-gram 的内存全文索引（非线程安全，由调用方加锁）
+ * 文本经 NFKC 归一化并转为小写后，按字母 / 数字的连续片段切分，每个片段索引其全部单字与相邻二字组合，
+ * 中文无需分词即可检索。查询时片段长度不小于 2 取二字组合，否则取单字，文档需包含查询的全部词项，
+ * 近似于对各字段做 LIKE '%text%'（包含全部二字组合但不连续的文档也会命中），再按 BM25 对结果打分排序。
+ * 每个文档可以有多个字段，各字段的词频按字段权重累加（例如名称命中比描述命中更重要）。
+ * 倒排表按内部槽位号递增存放，求交集时对较长的倒排表做二分查找；
+ * 删除与更新只标记旧槽位失效，失效槽位过多时整体压缩一次
+ *
+ * @author JunXing
+ */
+public class NgramIndex {
+
+    private static final float K1 = 1.2f;
+
+    private static final float B = 0.75f;
+
+    /**
+     * 失效槽位达到该数量且超过有效文档数时才压缩
+     */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    /**
+     * BM25 分数转换为整数分数时的放大倍数
+     */
+    private static final int SCORE_SCALE = 10000;
+
+    /**
+     * 槽位失效标记（文档 id 均为正数）
+     */
+    private static final long DEAD = 0L;
+
+    private final float[] fieldBoosts;
+
+    private final Map<String, Posting> postings = new HashMap<>();
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    private long[] idBySlot = new long[16];
+
+    private float[] lengthBySlot = new float[16];
+
+    /**
+     * 已分配的槽位数量（含失效槽位）
+     */
+    private int slotCount = 0;
+
+    private double totalLength = 0;
+
+    /**
+     * @param fieldBoosts 各字段的权重，字段顺序与 {@link #put(long, String...)} 的参数一致
+     */
+    public NgramIndex(float... fieldBoosts) {
+        this.fieldBoosts = fieldBoosts.clone();
+    }
+
+    /**
+     * 写入或替换文档
+     *
+     * @param id 文档 id，必须为正数
+     * @param fields 各字段文本，可以为 null
+     */
+    public void put(long id, String... fields) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("id must be positive");
+        }
+        remove(id);
+        Map<String, Float> termFrequency = new HashMap<>();
+        float length = 0;
+        for (int i = 0; i < fields.length && i < fieldBoosts.length; i++) {
+            List<String> terms = indexTerms(fields[i]);
+            for (String term : terms) {
+                termFrequency.merge(term, fieldBoosts[i], Float::sum);
+            }
+            length += fieldBoosts[i] * terms.size();
+        }
+        if (termFrequency.isEmpty()) {
+            return;
+        }
+        int slot = allocate(id, length);
+        for (Map.Entry<String, Float> entry : termFrequency.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new Posting()).add(slot, entry.getValue());
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @return 文档是否存在
+     */
+    public boolean remove(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        idBySlot[slot] = DEAD;
+        totalLength -= lengthBySlot[slot];
+        int deadCount = slotCount - slotById.size();
+        if (deadCount >= COMPACT_THRESHOLD && deadCount > slotById.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * 检索包含查询文本的文档
+     *
+     * @param query 查询文本
+     * @param limit 最多返回的文档数量
+     * @return 按相关度从高到低排列的文档 id，相关度相同时 id 大（较新）的在前
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> terms = queryTerms(query);
+        if (terms.isEmpty() || slotById.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Posting> postingList = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Posting posting = postings.get(term);
+            // 任意一个词项没有文档，交集必然为空
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            postingList.add(posting);
+        }
+        // 从最短的倒排表开始求交集，候选集合尽可能小
+        postingList.sort(Comparator.comparingInt(posting -> posting.size));
+        float averageLength = (float) (totalLength / slotById.size());
+        Posting first = postingList.get(0);
+        int[] candidates = new int[first.size];
+        float[] scores = new float[first.size];
+        int count = 0;
+        for (int i = 0; i < first.size; i++) {
+            int slot = first.slots[i];
+            if (idBySlot[slot] != DEAD) {
+                candidates[count] = slot;
+                scores[count] = score(first, i, averageLength);
+                count++;
+            }
+        }
+        for (int p = 1; p < postingList.size() && count > 0; p++) {
+            Posting posting = postingList.get(p);
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count; i++) {
+                int index = Arrays.binarySearch(posting.slots, from, posting.size, candidates[i]);
+                if (index >= 0) {
+                    candidates[kept] = candidates[i];
+                    scores[kept] = scores[i] + score(posting, index, averageLength);
+                    kept++;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+            count = kept;
+        }
+        TopKCollector<Long> topK = new TopKCollector<>(limit);
+        for (int i = 0; i < count; i++) {
+            long id = idBySlot[candidates[i]];
+            topK.offer(id, -Math.round(scores[i] * (double) SCORE_SCALE), -id);
+        }
+        List<Long> result = new ArrayList<>(Math.min(count, limit));
+        for (TopKCollector.Entry<Long> entry : topK.toSortedList()) {
+            result.add(entry.getItem());
+        }
+        return result;
+    }
+
+    /**
+     * 有效文档数量
+     */
+    public int size() {
+        return slotById.size();
+    }
+
+    /**
+     * 单个词项对文档的 BM25 分数；文档频率取倒排表长度（含尚未压缩的失效槽位，压缩前最多偏大一倍）
+     */
+    private float score(Posting posting, int index, float averageLength) {
+        int documentCount = slotById.size();
+        int df = Math.min(posting.size, documentCount);
+        double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        float tf = posting.weights[index];
+        float length = lengthBySlot[posting.slots[index]];
+        return (float) (idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength)));
+    }
+
+    private int allocate(long id, float length) {
+        if (slotCount == idBySlot.length) {
+            idBySlot = Arrays.copyOf(idBySlot, slotCount * 2);
+            lengthBySlot = Arrays.copyOf(lengthBySlot, slotCount * 2);
+        }
+        int slot = slotCount++;
+        idBySlot[slot] = id;
+        lengthBySlot[slot] = length;
+        slotById.put(id, slot);
+        totalLength += length;
+        return slot;
+    }
+
+    /**
+     * 去掉失效槽位并按原顺序重新编号，倒排表保持递增
+     */
+    private void compact() {
+        int[] newSlot = new int[slotCount];
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (idBySlot[slot] == DEAD) {
+                newSlot[slot] = -1;
+            } else {
+                newSlot[slot] = live;
+                idBySlot[live] = idBySlot[slot];
+                lengthBySlot[live] = lengthBySlot[slot];
+                slotById.put(idBySlot[live], live);
+                live++;
+            }
+        }
+        slotCount = live;
+        postings.values().removeIf(posting -> {
+            int kept = 0;
+            for (int i = 0; i < posting.size; i++) {
+                int slot = newSlot[posting.slots[i]];
+                if (slot >= 0) {
+                    posting.slots[kept] = slot;
+                    posting.weights[kept] = posting.weights[i];
+                    kept++;
+                }
+            }
+            posting.size = kept;
+            return kept == 0;
+        });
+    }
+
+    /**
+     * 文档的索引词项：每个片段的全部单字与相邻二字组合
+     */
+    static List<String> indexTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (int[] run : runs(text)) {
+            for (int i = 0; i < run.length; i++) {
+                terms.add(new String(run, i, 1));
+                if (i + 1 < run.length) {
+                    terms.add(new String(run, i, 2));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 查询的词项：长度不小于 2 的片段取相邻二字组合，单字片段取单字
+     */
+    static Set<String> queryTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (int[] run : runs(text)) {
+            if (run.length == 1) {
+                terms.add(new String(run, 0, 1));
+            }
+            for (int i = 0; i + 1 < run.length; i++) {
+                terms.add(new String(run, i, 2));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 归一化后按字母 / 数字的连续片段切分，返回各片段的码点数组
+     */
+    private static List<int[]> runs(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int[] codePoints = Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT).codePoints().toArray();
+        List<int[]> runs = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= codePoints.length; i++) {
+            boolean word = i < codePoints.length && Character.isLetterOrDigit(codePoints[i]);
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                runs.add(Arrays.copyOfRange(codePoints, start, i));
+                start = -1;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * 倒排表：按槽位号递增排列的槽位及其加权词频
+     */
+    private static final class Posting {
+
+        private int[] slots = new int[4];
+
+        private float[] weights = new float[4];
+
+        private int size = 0;
+
+        private void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size + (size >> 1));
+                weights = Arrays.copyOf(weights, slots.length);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
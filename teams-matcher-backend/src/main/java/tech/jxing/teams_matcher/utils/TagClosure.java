@@ -0,0 +1,200 @@
+package tech.jxing.teams_matcher.utils;
+
+import java.util.Arrays;
+
+/**
+ * 标签层级闭包（不可变）
+ * 对标签树做一次深度优先遍历，记录每个标签的进入序号 tin 与子树内最大进入序号 tout，
+ * a 是 b 的祖先当且仅当 tin[a] < tin[b] && tout[b] <= tout[a]，判断只需两次数组访问，复杂度 O(1)。
+ * 树上各子树区间 [tin, tout] 要么嵌套要么不相交，因此两个标签相关当且仅当区间有交集。
+ * 同时以紧凑的 CSR 形式（偏移数组 + 数据数组）预先展开每个标签的全部祖先，
+ * 子孙则直接对应遍历序中的一段连续区间
+ *
+ * @author JunXing
+ */
+public final class TagClosure {
+
+    /**
+     * 没有任何层级关系的闭包
+     */
+    public static final TagClosure EMPTY = build(new int[0]);
+
+    private final int[] tin;
+
+    private final int[] tout;
+
+    /**
+     * 按进入序号排列的标签 id，子树对应其中一段连续区间
+     */
+    private final int[] order;
+
+    private final int[] ancestorOffsets;
+
+    private final int[] ancestorData;
+
+    private TagClosure(int[] tin, int[] tout, int[] order, int[] ancestorOffsets, int[] ancestorData) {
+        this.tin = tin;
+        this.tout = tout;
+        this.order = order;
+        this.ancestorOffsets = ancestorOffsets;
+        this.ancestorData = ancestorData;
+    }
+
+    /**
+     * 根据父标签数组构建闭包
+     *
+     * @param parent parent[id] 为标签 id 的父标签 id，没有父标签时为 -1；成环的部分按没有父标签处理
+     * @return 标签层级闭包
+     */
+    public static TagClosure build(int[] parent) {
+        int n = parent.length;
+        int[] validParent = new int[n];
+        for (int id = 0; id < n; id++) {
+            validParent[id] = parent[id] >= 0 && parent[id] < n && parent[id] != id ? parent[id] : -1;
+        }
+        breakCycles(validParent);
+        // 以 CSR 形式建立子节点表
+        int[] childOffsets = new int[n + 1];
+        for (int id = 0; id < n; id++) {
+            if (validParent[id] >= 0) {
+                childOffsets[validParent[id] + 1]++;
+            }
+        }
+        for (int id = 0; id < n; id++) {
+            childOffsets[id + 1] += childOffsets[id];
+        }
+        int[] children = new int[childOffsets[n]];
+        int[] fill = Arrays.copyOf(childOffsets, n);
+        for (int id = 0; id < n; id++) {
+            if (validParent[id] >= 0) {
+                children[fill[validParent[id]]++] = id;
+            }
+        }
+        // 迭代式深度优先遍历，避免深层级时栈溢出
+        int[] tin = new int[n];
+        int[] tout = new int[n];
+        int[] order = new int[n];
+        int[] depth = new int[n];
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int time = 0;
+        for (int root = 0; root < n; root++) {
+            if (validParent[root] >= 0) {
+                continue;
+            }
+            int top = 0;
+            stack[0] = root;
+            next[root] = childOffsets[root];
+            tin[root] = time;
+            order[time++] = root;
+            while (top >= 0) {
+                int node = stack[top];
+                if (next[node] < childOffsets[node + 1]) {
+                    int child = children[next[node]++];
+                    depth[child] = depth[node] + 1;
+                    next[child] = childOffsets[child];
+                    tin[child] = time;
+                    order[time++] = child;
+                    stack[++top] = child;
+                } else {
+                    tout[node] = time - 1;
+                    top--;
+                }
+            }
+        }
+        // 展开祖先（由近到远）
+        int[] ancestorOffsets = new int[n + 1];
+        for (int id = 0; id < n; id++) {
+            ancestorOffsets[id + 1] = ancestorOffsets[id] + depth[id];
+        }
+        int[] ancestorData = new int[ancestorOffsets[n]];
+        for (int id = 0; id < n; id++) {
+            int offset = ancestorOffsets[id];
+            for (int p = validParent[id]; p >= 0; p = validParent[p]) {
+                ancestorData[offset++] = p;
+            }
+        }
+        return new TagClosure(tin, tout, order, ancestorOffsets, ancestorData);
+    }
+
+    /**
+     * 将环上的一条边断开（该节点视为根），保证父标签关系构成森林
+     */
+    private static void breakCycles(int[] parent) {
+        int n = parent.length;
+        // 0 - 未访问，1 - 当前路径上，2 - 已确认无环
+        byte[] state = new byte[n];
+        int[] path = new int[n];
+        for (int start = 0; start < n; start++) {
+            int length = 0;
+            int node = start;
+            while (node >= 0 && state[node] == 0) {
+                state[node] = 1;
+                path[length++] = node;
+                node = parent[node];
+            }
+            if (node >= 0 && state[node] == 1) {
+                parent[node] = -1;
+            }
+            for (int i = 0; i < length; i++) {
+                state[path[i]] = 2;
+            }
+        }
+    }
+
+    /**
+     * a 是否为 b 的（严格）祖先
+     */
+    public boolean isAncestor(int a, int b) {
+        return a != b && a >= 0 && b >= 0 && a < tin.length && b < tin.length
+                && tin[a] < tin[b] && tout[b] <= tout[a];
+    }
+
+    /**
+     * 两个不同的标签是否具有祖先/子孙关系
+     */
+    public boolean isRelated(int a, int b) {
+        return isAncestor(a, b) || isAncestor(b, a);
+    }
+
+    /**
+     * 标签的进入序号；超出闭包范围的标签返回 -1，与 {@link #exit(int)} 的 -2 组成一个不与任何区间嵌套的空区间
+     */
+    public int enter(int id) {
+        return id >= 0 && id < tin.length ? tin[id] : -1;
+    }
+
+    /**
+     * 标签子树内的最大进入序号；超出闭包范围的标签返回 -2
+     */
+    public int exit(int id) {
+        return id >= 0 && id < tout.length ? tout[id] : -2;
+    }
+
+    /**
+     * 获取标签的全部祖先（由近到远）
+     */
+    public int[] ancestors(int id) {
+        if (id < 0 || id >= tin.length) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(ancestorData, ancestorOffsets[id], ancestorOffsets[id + 1]);
+    }
+
+    /**
+     * 获取标签的全部子孙（先序）
+     */
+    public int[] descendants(int id) {
+        if (id < 0 || id >= tin.length) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(order, tin[id] + 1, tout[id] + 1);
+    }
+
+    /**
+     * 闭包覆盖的标签数量（标签 id 范围为 [0, size)）
+     */
+    public int size() {
+        return tin.length;
+    }
+}
@@ -0,0 +1,186 @@
+package tech.jxing.teams_matcher.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.WeakHashMap;
+
+/**
+ * 不可变的标签列表（规范化实例）
+ * 由标签 JSON 解析得到，标签名与标签列表都经过驻留：内容相同的标签列表在堆上只保留一个实例，
+ * 相同的标签名也只保留一个字符串。同一个 JSON 字符串再次出现时直接命中缓存，不再重复解析。
+ * 驻留表使用弱引用，不再被任何用户引用的标签列表可以被正常回收
+ *
+ * @author JunXing
+ */
+public final class TagList extends AbstractList<String> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * 标签名驻留表
+     */
+    private static final Map<String, WeakReference<String>> NAME_POOL = new WeakHashMap<>();
+
+    /**
+     * 标签列表驻留表，以标签列表自身为键
+     */
+    private static final Map<TagList, WeakReference<TagList>> LIST_POOL = new WeakHashMap<>();
+
+    /**
+     * JSON 字符串 -> 标签列表，键为规范实例持有的 JSON 字符串，随规范实例一同回收
+     */
+    private static final Map<String, WeakReference<TagList>> JSON_POOL = new WeakHashMap<>();
+
+    /**
+     * 没有任何标签的列表（驻留表初始化之后才能创建）
+     */
+    public static final TagList EMPTY = parse("[]");
+
+    private final String[] tags;
+
+    private final String json;
+
+    private transient int hash;
+
+    private TagList(String[] tags, String json) {
+        this.tags = tags;
+        this.json = json;
+    }
+
+    /**
+     * 解析标签 JSON
+     *
+     * @param json 标签 JSON，例如 ["java","男"]
+     * @return 规范化的标签列表，JSON 为空时返回 null
+     * @throws com.google.gson.JsonParseException JSON 格式错误时抛出
+     */
+    public static TagList parse(String json) {
+        if (StringUtils.isBlank(json)) {
+            return null;
+        }
+        TagList cached = get(JSON_POOL, json);
+        if (cached != null) {
+            return cached;
+        }
+        String[] tags = GSON.fromJson(json, String[].class);
+        if (tags == null) {
+            return null;
+        }
+        int count = 0;
+        for (String tag : tags) {
+            // 去掉 JSON 中的 null 元素
+            if (tag != null) {
+                tags[count++] = internName(tag);
+            }
+        }
+        TagList tagList = intern(new TagList(count == tags.length ? tags : Arrays.copyOf(tags, count), json));
+        synchronized (JSON_POOL) {
+            JSON_POOL.putIfAbsent(tagList.json, new WeakReference<>(tagList));
+        }
+        return tagList;
+    }
+
+    /**
+     * 解析标签 JSON，JSON 格式错误时返回 null
+     *
+     * @param json 标签 JSON
+     * @return 规范化的标签列表，JSON 为空或格式错误时返回 null
+     */
+    public static TagList tryParse(String json) {
+        try {
+            return parse(json);
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取规范实例持有的标签 JSON（内容相同的标签列表共享同一个 JSON 字符串）
+     */
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public String get(int index) {
+        return tags[index];
+    }
+
+    @Override
+    public int size() {
+        return tags.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof TagList) {
+            return Arrays.equals(tags, ((TagList) o).tags);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            // 与 List#hashCode 的定义一致
+            h = Arrays.hashCode(tags);
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * 反序列化（例如从 Session 中读取用户）后替换为规范实例
+     */
+    private Object readResolve() {
+        String[] internedTags = new String[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            internedTags[i] = internName(tags[i]);
+        }
+        return intern(new TagList(internedTags, json));
+    }
+
+    private static String internName(String name) {
+        synchronized (NAME_POOL) {
+            String canonical = get(NAME_POOL, name);
+            if (canonical == null) {
+                NAME_POOL.put(name, new WeakReference<>(name));
+                canonical = name;
+            }
+            return canonical;
+        }
+    }
+
+    private static TagList intern(TagList tagList) {
+        synchronized (LIST_POOL) {
+            TagList canonical = get(LIST_POOL, tagList);
+            if (canonical == null) {
+                LIST_POOL.put(tagList, new WeakReference<>(tagList));
+                canonical = tagList;
+            }
+            return canonical;
+        }
+    }
+
+    private static <K, V> V get(Map<K, WeakReference<V>> pool, K key) {
+        WeakReference<V> reference;
+        synchronized (pool) {
+            reference = pool.get(key);
+        }
+        return reference == null ? null : reference.get();
+    }
+}
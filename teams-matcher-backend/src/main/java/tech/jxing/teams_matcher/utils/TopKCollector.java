@@ -0,0 +1,139 @@
+package tech.jxing.teams_matcher.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 固定容量的 Top-K 收集器（分数越小越靠前）
+ * 内部维护一个大小不超过 K 的大顶堆，堆顶为当前第 K 名（最差）的元素，
+ * 逐个接收候选元素时只保留最优的 K 个，内存占用 O(K)，整体复杂度 O(N log K)
+ * 分数相同时按加入顺序（或显式指定的次序）排序，结果与“全量稳定排序后取前 K 个”一致
+ *
+ * @param <T> 元素类型
+ * @author JunXing
+ */
+public class TopKCollector<T> {
+
+    /**
+     * 堆顶为最差元素：分数大者更差，分数相同时后加入者更差
+     */
+    private static final Comparator<Entry<?>> WORST_FIRST = (a, b) -> {
+        int cmp = Long.compare(b.score, a.score);
+        return cmp != 0 ? cmp : Long.compare(b.sequence, a.sequence);
+    };
+
+    private final int capacity;
+
+    private final PriorityQueue<Entry<T>> heap;
+
+    private long sequence = 0;
+
+    public TopKCollector(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, WORST_FIRST);
+    }
+
+    /**
+     * 提交一个候选元素
+     *
+     * @param item 候选元素
+     * @param score 分数，越小越好
+     * @return true - 元素进入了 Top-K；false - 元素被淘汰
+     */
+    public boolean offer(T item, long score) {
+        return offer(item, score, sequence++);
+    }
+
+    /**
+     * 提交一个候选元素，并显式指定分数相同时的先后次序
+     * 多个收集器并行收集后再合并时，使用全局次序可以保证结果与顺序收集完全一致
+     *
+     * @param item 候选元素
+     * @param score 分数，越小越好
+     * @param seq 分数相同时的次序，越小越靠前
+     * @return true - 元素进入了 Top-K；false - 元素被淘汰
+     */
+    public boolean offer(T item, long score, long seq) {
+        if (heap.size() < capacity) {
+            heap.offer(new Entry<>(item, score, seq));
+            return true;
+        }
+        // 堆已满，只有严格优于当前第 K 名的元素才能进入
+        Entry<T> worst = heap.peek();
+        if (score > worst.score || (score == worst.score && seq >= worst.sequence)) {
+            return false;
+        }
+        heap.poll();
+        heap.offer(new Entry<>(item, score, seq));
+        return true;
+    }
+
+    /**
+     * 当前的淘汰阈值：堆未满时为 Long.MAX_VALUE，堆满后为第 K 名的分数
+     * 分数大于等于该阈值的候选元素一定不会进入 Top-K
+     */
+    public long threshold() {
+        if (heap.size() < capacity) {
+            return Long.MAX_VALUE;
+        }
+        return heap.peek().score;
+    }
+
+    /**
+     * 合并另一个收集器的结果，合并后仍只保留最优的 K 个
+     *
+     * @param other 另一个收集器
+     */
+    public void merge(TopKCollector<T> other) {
+        for (Entry<T> entry : other.heap) {
+            offer(entry.item, entry.score, entry.sequence);
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * 按分数从小到大返回收集到的元素
+     */
+    public List<Entry<T>> toSortedList() {
+        List<Entry<T>> result = new ArrayList<>(heap);
+        result.sort(Collections.reverseOrder(WORST_FIRST));
+        return result;
+    }
+
+    /**
+     * Top-K 中的一条记录
+     *
+     * @param <T> 元素类型
+     */
+    public static class Entry<T> {
+
+        private final T item;
+
+        private final long score;
+
+        private final long sequence;
+
+        Entry(T item, long score, long sequence) {
+            this.item = item;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ *
+ * @author JunXing
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * 处于事务中时推迟到事务提交之后执行（回滚则不执行），否则立即执行
+     * 用于缓存、索引、消息等数据库之外的副作用，避免其他请求在提交前看到或缓存旧数据
+     *
+     * @param action 需要执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- 从数据库加载用户已加入的队伍集合，集合已存在时不覆盖（可能已有新的预占）
+-- KEYS[1] 用户已加入的队伍集合
+-- ARGV[1] 键的过期时间（毫秒）；ARGV[2...] 占位成员 0 与已加入的队伍 id
+if redis.call('exists', KEYS[1]) == 0 then
+    redis.call('sadd', KEYS[1], unpack(ARGV, 2))
+    redis.call('pexpire', KEYS[1], ARGV[1])
+end
+return 1
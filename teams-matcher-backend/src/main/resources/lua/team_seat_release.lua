@@ -0,0 +1,8 @@
+-- 释放队伍名额：用户退出队伍或预占后写入数据库失败时调用
+-- KEYS[1] 用户已加入的队伍集合；KEYS[2] 队伍已占用的名额
+-- ARGV[1] 队伍 id
+local removed = redis.call('srem', KEYS[1], ARGV[1])
+if redis.call('exists', KEYS[2]) == 1 and tonumber(redis.call('get', KEYS[2])) > 0 then
+    redis.call('decr', KEYS[2])
+end
+return removed
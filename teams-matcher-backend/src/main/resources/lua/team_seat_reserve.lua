@@ -0,0 +1,26 @@
+-- 预占队伍名额：重复加入、加入数量上限、队伍满员的校验与占位在同一个脚本中原子完成
+-- KEYS[1] 用户已加入的队伍集合（包含占位成员 0，表示已从数据库加载）
+-- KEYS[2] 队伍已占用的名额
+-- ARGV[1] 队伍 id；ARGV[2] 队伍最大人数；ARGV[3] 队伍当前人数（名额不存在时用于初始化）
+-- ARGV[4] 用户最多加入的队伍数量；ARGV[5] 键的过期时间（毫秒）
+-- 返回：0 预占成功；-1 用户集合未加载；1 已加入该队伍；2 加入的队伍数量已达上限；3 队伍已满
+if redis.call('exists', KEYS[1]) == 0 then
+    return -1
+end
+if redis.call('sismember', KEYS[1], ARGV[1]) == 1 then
+    return 1
+end
+if redis.call('scard', KEYS[1]) - 1 >= tonumber(ARGV[4]) then
+    return 2
+end
+if redis.call('exists', KEYS[2]) == 0 then
+    redis.call('set', KEYS[2], ARGV[3])
+end
+if tonumber(redis.call('get', KEYS[2])) >= tonumber(ARGV[2]) then
+    return 3
+end
+redis.call('sadd', KEYS[1], ARGV[1])
+redis.call('incr', KEYS[2])
+redis.call('pexpire', KEYS[1], ARGV[5])
+redis.call('pexpire', KEYS[2], ARGV[5])
+return 0
@@ -0,0 +1,88 @@
+package tech.jxing.teams_matcher.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 队伍已加入用户数相关 SQL 测试（H2 嵌入式数据库，MySQL 模式）
+ *
+ * @author JunXing
+ */
+public class TeamMapperTest {
+
+    private TeamMapper teamMapper;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:team_mapper;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/h2-schema.sql"));
+            // 队伍 1：上限 3 人，计数 2 与关系表一致；队伍 2：计数 5 偏大；队伍 3：计数 0 偏小；队伍 4：已删除
+            statement.execute("insert into team (id, name, maxNum, memberCount, userId, isDelete) values "
+                    + "(1, 'team1', 3, 2, 1, 0), (2, 'team2', 10, 5, 2, 0), (3, 'team3', 10, 0, 3, 0), (4, 'team4', 3, 1, 4, 1)");
+            statement.execute("insert into user_team (userId, teamId, isDelete) values "
+                    + "(1, 1, 0), (5, 1, 0), (6, 1, 1), (2, 2, 0), (3, 3, 0), (7, 3, 0), (4, 4, 0)");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(false);
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        factoryBean.setMapperLocations(new Resource[]{new ClassPathResource("mapper/TeamMapper.xml")});
+        teamMapper = new SqlSessionTemplate(factoryBean.getObject()).getMapper(TeamMapper.class);
+    }
+
+    @Test
+    public void testIncrementMemberCount() {
+        Assertions.assertEquals(1, teamMapper.incrementMemberCount(1));
+        Assertions.assertEquals(3, teamMapper.selectById(1L).getMemberCount());
+        // 已满
+        Assertions.assertEquals(0, teamMapper.incrementMemberCount(1));
+        Assertions.assertEquals(3, teamMapper.selectById(1L).getMemberCount());
+        // 已删除、不存在
+        Assertions.assertEquals(0, teamMapper.incrementMemberCount(4));
+        Assertions.assertEquals(0, teamMapper.incrementMemberCount(99));
+    }
+
+    @Test
+    public void testDecrementMemberCount() {
+        Assertions.assertEquals(1, teamMapper.decrementMemberCount(2));
+        Assertions.assertEquals(4, teamMapper.selectById(2L).getMemberCount());
+        // 不会减为负数
+        Assertions.assertEquals(0, teamMapper.decrementMemberCount(3));
+        Assertions.assertEquals(0, teamMapper.selectById(3L).getMemberCount());
+    }
+
+    @Test
+    public void testSelectMemberCountDriftTeamIds() {
+        Assertions.assertEquals(Arrays.asList(2L, 3L), teamMapper.selectMemberCountDriftTeamIds(0, 10));
+        // 区间为 (fromId, toId]
+        Assertions.assertEquals(Collections.singletonList(3L), teamMapper.selectMemberCountDriftTeamIds(2, 3));
+        Assertions.assertEquals(Collections.emptyList(), teamMapper.selectMemberCountDriftTeamIds(0, 1));
+    }
+
+    @Test
+    public void testRepairMemberCount() {
+        Assertions.assertEquals(2, teamMapper.repairMemberCount(Arrays.asList(2L, 3L)));
+        Assertions.assertEquals(1, teamMapper.selectById(2L).getMemberCount());
+        Assertions.assertEquals(2, teamMapper.selectById(3L).getMemberCount());
+        // 未在列表中的队伍不受影响
+        Assertions.assertEquals(2, teamMapper.selectById(1L).getMemberCount());
+        Assertions.assertEquals(Collections.emptyList(), teamMapper.selectMemberCountDriftTeamIds(0, 10));
+    }
+}
@@ -0,0 +1,517 @@
+package tech.jxing.teams_matcher.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jxing.teams_matcher.common.ErrorCode;
+import tech.jxing.teams_matcher.config.TeamProperties;
+import tech.jxing.teams_matcher.exception.BusinessException;
+import tech.jxing.teams_matcher.manager.TeamExpiryScheduler;
+import tech.jxing.teams_matcher.manager.TeamListCache;
+import tech.jxing.teams_matcher.manager.TeamSearchIndex;
+import tech.jxing.teams_matcher.manager.TeamSeatReservation;
+import tech.jxing.teams_matcher.manager.TeamWriteQueue;
+import tech.jxing.teams_matcher.mapper.TeamMapper;
+import tech.jxing.teams_matcher.mapper.UserMapper;
+import tech.jxing.teams_matcher.mapper.UserTeamMapper;
+import tech.jxing.teams_matcher.model.domain.Team;
+import tech.jxing.teams_matcher.model.domain.User;
+import tech.jxing.teams_matcher.model.enums.TeamJoinModeEnum;
+import tech.jxing.teams_matcher.model.enums.TeamSearchModeEnum;
+import tech.jxing.teams_matcher.model.request.TeamJoinRequest;
+import tech.jxing.teams_matcher.model.request.TeamQuitRequest;
+import tech.jxing.teams_matcher.service.impl.TeamServiceImpl;
+import tech.jxing.teams_matcher.service.impl.UserTeamServiceImpl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 加入、退出、创建与解散队伍的并发压力测试：H2 嵌入式数据库（MySQL 模式）中准备用户与队伍，
+ * 由线程池并发发起数万次加入、退出、创建与解散请求，热门队伍集中了一半的请求。
+ * 创建队伍的请求全部来自少量热门用户，这些用户同时频繁加入队伍，用于校验同时创建和加入不会超过 5 个队伍的上限。
+ * 结束后校验不变量：已加入的用户数与关系表一致且不超过队伍上限、每个用户最多加入 5 个队伍、
+ * 同一用户在同一队伍中只有一条关系、未解散的队伍队长仍在队伍中、已解散的队伍没有成员，
+ * 并输出吞吐量与 p50/p99/p999 延迟。
+ * OPTIMISTIC、QUEUE 与 LOCK 模式只依赖数据库，未指定 Redis 时 LOCK 模式使用进程内的锁；
+ * REDIS 模式需要本机的 Redis，通过 -Dstress.redis=redis://127.0.0.1:6379 指定（会清空其中的名额预占键，
+ * LOCK 模式也随之改用 Redisson 分布式锁），未指定时跳过。
+ * 默认跳过，使用 mvn -P stress test -Dtest=TeamJoinStressTest 运行，
+ * 可通过 -Dstress.ops、-Dstress.threads 调整请求数与并发数
+ *
+ * @author JunXing
+ */
+@Tag("stress")
+public class TeamJoinStressTest {
+
+    private static final int USER_COUNT = 2000;
+
+    private static final int TEAM_COUNT = 200;
+
+    /**
+     * 一半的请求集中在前 HOT_TEAM_COUNT 个队伍
+     */
+    private static final int HOT_TEAM_COUNT = 5;
+
+    /**
+     * 创建队伍的请求与四分之一的加入请求来自最后 HOT_USER_COUNT 个用户（他们没有初始队伍）
+     */
+    private static final int HOT_USER_COUNT = 50;
+
+    private static final int OPS = Integer.getInteger("stress.ops", 20000);
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 64);
+
+    private static final long STRESS_WAIT_MILLIS = 60000;
+
+    private static final String REDIS_ADDRESS = System.getProperty("stress.redis");
+
+    private JdbcDataSource dataSource;
+
+    private TeamMapper teamMapper;
+
+    private TeamWriteQueue teamWriteQueue;
+
+    private RedissonClient redissonClient;
+
+    private LettuceConnectionFactory redisConnectionFactory;
+
+    @BeforeAll
+    public static void quietLogging() {
+        // 未加载 Spring Boot 的日志配置时 logback 默认输出 DEBUG，会淹没统计结果并拖慢压测
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (teamWriteQueue != null) {
+            teamWriteQueue.destroy();
+        }
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redisConnectionFactory != null) {
+            redisConnectionFactory.destroy();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TeamJoinModeEnum.class)
+    public void testJoinQuitDeleteUnderContention(TeamJoinModeEnum mode) throws Exception {
+        Assumptions.assumeTrue(!TeamJoinModeEnum.REDIS.equals(mode) || REDIS_ADDRESS != null,
+                mode + " 模式需要通过 -Dstress.redis 指定本机 Redis");
+        TeamService teamService = buildTeamService(mode);
+
+        // 待退出的 userId:teamId，退出请求优先从最近加入成功的关系中选取
+        ConcurrentLinkedQueue<long[]> joined = new ConcurrentLinkedQueue<>();
+        Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        AtomicInteger unexpected = new AtomicInteger();
+        long[] latencies = new long[OPS];
+        AtomicLong finishedAt = new AtomicLong();
+        ExecutorService executorService = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(OPS));
+        List<Future<?>> futureList = new ArrayList<>(OPS);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) {
+            int index = i;
+            futureList.add(executorService.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int dice = random.nextInt(100);
+                long opStart = System.nanoTime();
+                String outcome;
+                try {
+                    if (dice < 60) {
+                        long userId = random.nextInt(4) == 0 ? pickHotUser(random) : 1 + random.nextInt(USER_COUNT);
+                        long teamId = pickTeam(random);
+                        outcome = "join:" + teamService.joinTeam(joinRequest(teamId), loginUser(userId));
+                        joined.offer(new long[]{userId, teamId});
+                    } else if (dice < 95) {
+                        long[] pair = joined.poll();
+                        if (pair == null) {
+                            pair = new long[]{1 + random.nextInt(USER_COUNT), pickTeam(random)};
+                        }
+                        outcome = "quit:" + teamService.quitTeam(quitRequest(pair[1]), loginUser(pair[0]));
+                    } else if (dice < 98) {
+                        teamService.addTeam(newTeam(index, random), loginUser(pickHotUser(random)));
+                        outcome = "create:true";
+                    } else {
+                        long teamId = pickTeam(random);
+                        Team team = teamMapper.selectById(teamId);
+                        long leaderId = team == null ? 1 : team.getUserId();
+                        outcome = "delete:" + teamService.deleteTeam(teamId, loginUser(leaderId));
+                    }
+                } catch (BusinessException e) {
+                    outcome = "error:" + e.getDescription();
+                    if (e.getCode() == ErrorCode.SYSTEM_ERROR.getCode()) {
+                        unexpected.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    outcome = "exception:" + e.getClass().getSimpleName();
+                    unexpected.incrementAndGet();
+                }
+                latencies[index] = System.nanoTime() - opStart;
+                finishedAt.accumulateAndGet(System.nanoTime(), Math::max);
+                outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+            }));
+        }
+        for (Future<?> future : futureList) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        long elapsedNanos = finishedAt.get() - start;
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d ops, %d threads, %.0f ops/s, p50 %.2f ms, p99 %.2f ms, p999 %.2f ms%n",
+                mode, OPS, THREADS, OPS * 1e9 / elapsedNanos,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99), percentileMillis(latencies, 0.999));
+        System.out.println(mode + " outcomes: " + outcomes);
+
+        assertInvariants();
+        // 业务校验失败（队伍已满、已加入等）是预期结果，不能出现系统错误或未转换的异常
+        Assertions.assertEquals(0, unexpected.get(), "unexpected errors");
+    }
+
+    private void assertInvariants() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            Assertions.assertEquals(0, count(statement, "select count(*) from team t where t.isDelete = 0 and ("
+                    + "t.memberCount > t.maxNum or t.memberCount <> "
+                    + "(select count(*) from user_team ut where ut.teamId = t.id and ut.isDelete = 0))"),
+                    "memberCount exceeds maxNum or drifts from user_team");
+            Assertions.assertEquals(0, count(statement, "select count(*) from (select userId from user_team "
+                    + "where isDelete = 0 group by userId having count(*) > 5)"), "user joined more than 5 teams");
+            Assertions.assertEquals(0, count(statement, "select count(*) from (select userId, teamId from user_team "
+                    + "where isDelete = 0 group by userId, teamId having count(*) > 1)"), "duplicate membership");
+            Assertions.assertEquals(0, count(statement, "select count(*) from team t where t.isDelete = 0 and not exists "
+                    + "(select 1 from user_team ut where ut.teamId = t.id and ut.userId = t.userId and ut.isDelete = 0)"),
+                    "team without leader");
+            Assertions.assertEquals(0, count(statement, "select count(*) from user_team ut join team t on ut.teamId = t.id "
+                    + "where ut.isDelete = 0 and t.isDelete = 1"), "member of dissolved team");
+        }
+    }
+
+    private TeamService buildTeamService(TeamJoinModeEnum mode) throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:team_join_stress;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/h2-schema.sql"));
+            statement.execute("insert into user (id, userAccount, userPassword) "
+                    + "select x, concat('user', x), 'x' from system_range(1, " + USER_COUNT + ")");
+            // 队伍 i 由用户 i 创建，上限 2 ~ 10 人，创建者已在队伍中
+            statement.execute("insert into team (id, name, maxNum, memberCount, userId, status) "
+                    + "select x, concat('team', x), 2 + mod(x, 9), 1, x, 0 from system_range(1, " + TEAM_COUNT + ")");
+            statement.execute("insert into user_team (userId, teamId, joinTime) "
+                    + "select x, x, now() from system_range(1, " + TEAM_COUNT + ")");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(false);
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        factoryBean.setMapperLocations(new Resource[]{new ClassPathResource("mapper/TeamMapper.xml"),
+                new ClassPathResource("mapper/UserMapper.xml"), new ClassPathResource("mapper/UserTeamMapper.xml")});
+        SqlSessionTemplate sqlSessionTemplate = new SqlSessionTemplate(factoryBean.getObject());
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        teamMapper = sqlSessionTemplate.getMapper(TeamMapper.class);
+
+        TeamProperties teamProperties = new TeamProperties();
+        teamProperties.getJoin().setMode(mode);
+        // 热门队伍上排队的请求较多，放宽锁与写入队列的等待时间，压测中不因等待超时放弃请求
+        teamProperties.getJoin().setLockWaitMillis(STRESS_WAIT_MILLIS);
+        teamProperties.getJoin().getQueue().setTimeoutMillis(STRESS_WAIT_MILLIS);
+        teamProperties.getSearch().setMode(TeamSearchModeEnum.LIKE);
+        teamProperties.getListCache().setEnabled(false);
+
+        UserTeamMapper userTeamMapper = sqlSessionTemplate.getMapper(UserTeamMapper.class);
+        UserTeamServiceImpl userTeamService = new UserTeamServiceImpl();
+        inject(userTeamService, "baseMapper", userTeamMapper);
+        TeamSearchIndex teamSearchIndex = new TeamSearchIndex();
+        inject(teamSearchIndex, "teamMapper", teamMapper);
+        inject(teamSearchIndex, "teamProperties", teamProperties);
+
+        TeamServiceImpl teamService = new TeamServiceImpl();
+        inject(teamService, "baseMapper", teamMapper);
+        inject(teamService, "userMapper", sqlSessionTemplate.getMapper(UserMapper.class));
+        inject(teamService, "userTeamService", userTeamService);
+        inject(teamService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        inject(teamService, "teamProperties", teamProperties);
+        inject(teamService, "teamSearchIndex", teamSearchIndex);
+        inject(teamService, "teamListCache", new TeamListCache() {
+            @Override
+            public void invalidate() {
+            }
+        });
+        inject(teamService, "teamExpiryScheduler", new TeamExpiryScheduler() {
+            @Override
+            public void schedule(long teamId, Date expireTime) {
+            }
+        });
+        inject(teamService, "teamSeatReservation", buildSeatReservation(mode, teamProperties, userTeamMapper));
+        if (REDIS_ADDRESS != null) {
+            Config config = new Config();
+            config.useSingleServer().setAddress(REDIS_ADDRESS);
+            redissonClient = Redisson.create(config);
+            inject(teamService, "redissonClient", redissonClient);
+        } else {
+            inject(teamService, "redissonClient", inProcessRedissonClient());
+        }
+        teamWriteQueue = new TeamWriteQueue();
+        inject(teamWriteQueue, "transactionManager", transactionManager);
+        inject(teamWriteQueue, "teamProperties", teamProperties);
+        inject(teamService, "teamWriteQueue", teamWriteQueue);
+        teamService.init();
+        // 与 Spring 容器中一样通过代理调用，@Transactional 注解的方法在事务中执行
+        ProxyFactory proxyFactory = new ProxyFactory(teamService);
+        proxyFactory.addAdvice(new TransactionInterceptor((TransactionManager) transactionManager,
+                new AnnotationTransactionAttributeSource()));
+        return (TeamService) proxyFactory.getProxy();
+    }
+
+    /**
+     * REDIS 模式使用真实的名额预占；其他模式不访问 Redis，名额键的释放与删除为空操作
+     */
+    private TeamSeatReservation buildSeatReservation(TeamJoinModeEnum mode, TeamProperties teamProperties,
+                                                     UserTeamMapper userTeamMapper) throws Exception {
+        if (!TeamJoinModeEnum.REDIS.equals(mode)) {
+            return new TeamSeatReservation() {
+                @Override
+                public void release(long userId, long teamId) {
+                }
+
+                @Override
+                public void evictUser(long userId) {
+                }
+
+                @Override
+                public void evictTeam(long teamId) {
+                }
+            };
+        }
+        java.net.URI uri = java.net.URI.create(REDIS_ADDRESS);
+        redisConnectionFactory = new LettuceConnectionFactory(uri.getHost(), uri.getPort());
+        redisConnectionFactory.afterPropertiesSet();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        Set<String> keys = stringRedisTemplate.keys("teamsmatcher:team:seat:*");
+        if (keys != null && !keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+        TeamSeatReservation teamSeatReservation = new TeamSeatReservation();
+        inject(teamSeatReservation, "stringRedisTemplate", stringRedisTemplate);
+        inject(teamSeatReservation, "userTeamMapper", userTeamMapper);
+        inject(teamSeatReservation, "teamProperties", teamProperties);
+        return teamSeatReservation;
+    }
+
+    /**
+     * 进程内的 RedissonClient，只支持加入队伍用到的 getLock 与 getMultiLock：
+     * 同名的锁共享同一个 ReentrantLock，联锁按顺序获取各把锁，获取失败时释放已获取的锁
+     */
+    private static RedissonClient inProcessRedissonClient() {
+        Map<String, RLock> lockMap = new ConcurrentHashMap<>();
+        return proxy(RedissonClient.class, (method, args) -> {
+            switch (method) {
+                case "getLock":
+                    if (args[0] instanceof String) {
+                        return lockMap.computeIfAbsent((String) args[0], name -> inProcessLock(new ReentrantLock()));
+                    }
+                    break;
+                case "getMultiLock":
+                    if (args[0] instanceof RLock[]) {
+                        return inProcessMultiLock((RLock[]) args[0]);
+                    }
+                    break;
+                case "shutdown":
+                    return null;
+                default:
+                    break;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static RLock inProcessLock(ReentrantLock lock) {
+        return proxy(RLock.class, (method, args) -> {
+            switch (method) {
+                case "tryLock":
+                    if (args == null) {
+                        return lock.tryLock();
+                    }
+                    // tryLock(waitTime, unit) 或 tryLock(waitTime, leaseTime, unit)，进程内的锁不需要租期
+                    return lock.tryLock((Long) args[0], (TimeUnit) args[args.length - 1]);
+                case "lock":
+                    lock.lock();
+                    return null;
+                case "unlock":
+                    lock.unlock();
+                    return null;
+                case "isHeldByCurrentThread":
+                    return lock.isHeldByCurrentThread();
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private static RLock inProcessMultiLock(RLock[] locks) {
+        return proxy(RLock.class, (method, args) -> {
+            switch (method) {
+                case "tryLock":
+                    long deadline = args == null ? System.nanoTime()
+                            : System.nanoTime() + ((TimeUnit) args[args.length - 1]).toNanos((Long) args[0]);
+                    for (int i = 0; i < locks.length; i++) {
+                        long remaining = Math.max(deadline - System.nanoTime(), 0);
+                        if (!locks[i].tryLock(remaining, -1, TimeUnit.NANOSECONDS)) {
+                            for (int j = i - 1; j >= 0; j--) {
+                                locks[j].unlock();
+                            }
+                            return false;
+                        }
+                    }
+                    return true;
+                case "unlock":
+                    for (int i = locks.length - 1; i >= 0; i--) {
+                        locks[i].unlock();
+                    }
+                    return null;
+                case "isHeldByCurrentThread":
+                    return Arrays.stream(locks).allMatch(RLock::isHeldByCurrentThread);
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface MethodHandler {
+
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, MethodHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                }
+            }
+            return handler.invoke(method.getName(), args);
+        });
+    }
+
+    private static long pickHotUser(ThreadLocalRandom random) {
+        return USER_COUNT - random.nextInt(HOT_USER_COUNT);
+    }
+
+    private static Team newTeam(int index, ThreadLocalRandom random) {
+        Team team = new Team();
+        team.setName("created" + index);
+        team.setMaxNum(2 + random.nextInt(9));
+        team.setStatus(0);
+        team.setExpireTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+        return team;
+    }
+
+    private static long pickTeam(ThreadLocalRandom random) {
+        return random.nextBoolean() ? 1 + random.nextInt(HOT_TEAM_COUNT) : 1 + random.nextInt(TEAM_COUNT);
+    }
+
+    private static TeamJoinRequest joinRequest(long teamId) {
+        TeamJoinRequest teamJoinRequest = new TeamJoinRequest();
+        teamJoinRequest.setTeamId(teamId);
+        return teamJoinRequest;
+    }
+
+    private static TeamQuitRequest quitRequest(long teamId) {
+        TeamQuitRequest teamQuitRequest = new TeamQuitRequest();
+        teamQuitRequest.setTeamId(teamId);
+        return teamQuitRequest;
+    }
+
+    private static User loginUser(long userId) {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private static long count(Statement statement, String sql) throws Exception {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * 与 UserScanStressTest 一样在测试中通过反射注入依赖，向上查找父类中的字段（例如 ServiceImpl 的 baseMapper）
+     */
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+}
@@ -0,0 +1,115 @@
+package tech.jxing.teams_matcher.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import tech.jxing.teams_matcher.config.TagSearchProperties;
+import tech.jxing.teams_matcher.handler.TagListTypeHandler;
+import tech.jxing.teams_matcher.manager.TagDictionary;
+import tech.jxing.teams_matcher.manager.TagHierarchy;
+import tech.jxing.teams_matcher.mapper.UserMapper;
+import tech.jxing.teams_matcher.model.domain.User;
+import tech.jxing.teams_matcher.model.enums.TagSearchModeEnum;
+import tech.jxing.teams_matcher.service.impl.UserServiceImpl;
+import tech.jxing.teams_matcher.utils.TagList;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流式查询压力测试：H2 嵌入式数据库中写入 100 万用户，在 -Xmx64m 下完成全表扫描。
+ * 一次性查询出全部用户需要数百 MB 堆内存，只有逐行处理才能在该内存限制下通过。
+ * 默认跳过，使用 mvn -P stress test 运行
+ *
+ * @author JunXing
+ */
+@Tag("stress")
+public class UserScanStressTest {
+
+    private static final int USER_COUNT = 1_000_000;
+
+    /**
+     * 每 RARE_INTERVAL 个用户中有一个拥有稀有标签
+     */
+    private static final int RARE_INTERVAL = 1000;
+
+    private static UserMapper userMapper;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        // 使用文件数据库，数据不占用堆内存；LAZY_QUERY_EXECUTION 使 H2 逐行产出查询结果
+        dataSource.setURL("jdbc:h2:file:./target/stress/teams_matcher;MODE=MySQL;NON_KEYWORDS=USER;"
+                + "LAZY_QUERY_EXECUTION=TRUE;CACHE_SIZE=8192");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/h2-schema.sql"));
+            statement.execute("insert into user (userAccount, userPassword, tags) "
+                    + "select concat('user', x), 'x', case "
+                    + "when mod(x, " + RARE_INTERVAL + ") = 0 then '[\"Java\",\"稀有\"]' "
+                    + "when mod(x, 3) = 0 then '[\"Java\",\"男\",\"大一\"]' "
+                    + "when mod(x, 3) = 1 then '[\"Python\",\"女\",\"大二\"]' "
+                    + "else '[\"Go\",\"男\",\"研一\",\"后端\"]' end "
+                    + "from system_range(1, " + USER_COUNT + ")");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(false);
+        configuration.getTypeHandlerRegistry().register(TagList.class, new TagListTypeHandler());
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        factoryBean.setMapperLocations(new Resource[]{new ClassPathResource("mapper/UserMapper.xml")});
+        SqlSessionTemplate sqlSessionTemplate = new SqlSessionTemplate(factoryBean.getObject());
+        sqlSessionTemplate.getConfiguration().addMapper(UserMapper.class);
+        userMapper = sqlSessionTemplate.getMapper(UserMapper.class);
+    }
+
+    @Test
+    public void testSelectStream() {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("isDelete", 0);
+        AtomicLong count = new AtomicLong();
+        AtomicLong tagCount = new AtomicLong();
+        userMapper.selectStream(queryWrapper, context -> {
+            count.incrementAndGet();
+            tagCount.addAndGet(context.getResultObject().getTagList().size());
+        });
+        Assertions.assertEquals(USER_COUNT, count.get());
+        Assertions.assertTrue(tagCount.get() > USER_COUNT * 2L);
+    }
+
+    @Test
+    public void testSearchUserByTagsByScan() throws Exception {
+        TagSearchProperties tagSearchProperties = new TagSearchProperties();
+        tagSearchProperties.setMode(TagSearchModeEnum.SCAN);
+        tagSearchProperties.setExpandDescendants(false);
+        UserServiceImpl userService = new UserServiceImpl();
+        inject(userService, "userMapper", userMapper);
+        inject(userService, "tagSearchProperties", tagSearchProperties);
+        inject(userService, "tagDictionary", new TagDictionary());
+        inject(userService, "tagHierarchy", new TagHierarchy());
+        List<User> userList = userService.searchUserByTags(Collections.singletonList("稀有"));
+        Assertions.assertEquals(USER_COUNT / RARE_INTERVAL, userList.size());
+        // 返回的是脱敏后的用户
+        Assertions.assertNull(userList.get(0).getUserPassword());
+    }
+
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
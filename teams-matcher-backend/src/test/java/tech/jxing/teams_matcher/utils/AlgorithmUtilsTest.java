@@ -0,0 +1,103 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 算法工具类测试
+ * @author JunXing
+ */
+public class AlgorithmUtilsTest {
+
+    @Test
+    public void testMiniDistance() {
+        List<String> tagList1 = Arrays.asList("Java", "大一", "男");
+        List<String> tagList2 = Arrays.asList("Java", "大二", "男");
+        List<String> tagList3 = Arrays.asList("Python", "大二", "女");
+        Assertions.assertEquals(1, AlgorithmUtils.miniDistance(tagList1, tagList2));
+        Assertions.assertEquals(3, AlgorithmUtils.miniDistance(tagList1, tagList3));
+        Assertions.assertEquals(1, AlgorithmUtils.miniDistance(new int[]{1, 2, 3}, new int[]{1, 4, 3}));
+        Assertions.assertEquals(3, AlgorithmUtils.miniDistance(new int[]{}, new int[]{1, 2, 3}));
+    }
+
+    /**
+     * 带上界的编辑距离：距离不超过上界时结果与完整算法一致，超过上界时返回 Integer.MAX_VALUE
+     */
+    @Test
+    public void testBoundedMiniDistance() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20000; round++) {
+            int[] tags1 = randomTags(random);
+            int[] tags2 = randomTags(random);
+            int expected = AlgorithmUtils.miniDistance(tags1, tags2);
+            int bound = random.nextInt(12) - 1;
+            int actual = AlgorithmUtils.boundedMiniDistance(tags1, tags2, bound);
+            if (expected <= bound) {
+                Assertions.assertEquals(expected, actual, Arrays.toString(tags1) + " " + Arrays.toString(tags2) + " " + bound);
+            } else {
+                Assertions.assertEquals(Integer.MAX_VALUE, actual, Arrays.toString(tags1) + " " + Arrays.toString(tags2) + " " + bound);
+            }
+            Assertions.assertEquals(expected, AlgorithmUtils.boundedMiniDistance(tags1, tags2, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * 层级感知的编辑距离：与不剪枝的半单位动态规划结果一致
+     */
+    @Test
+    public void testBoundedHierarchyDistance() {
+        // 0 为 1、2 的父标签，1 为 3 的父标签
+        TagClosure closure = TagClosure.build(new int[]{-1, 0, 0, 1, -1, -1});
+        Assertions.assertEquals(1, AlgorithmUtils.boundedHierarchyDistance(new int[]{1, 4}, new int[]{3, 4}, Integer.MAX_VALUE, closure));
+        Assertions.assertEquals(2, AlgorithmUtils.boundedHierarchyDistance(new int[]{2, 4}, new int[]{3, 4}, Integer.MAX_VALUE, closure));
+        // 6、7 不在闭包中：相同标签记 0，不同标签按无关标签记 2
+        Assertions.assertEquals(0, AlgorithmUtils.boundedHierarchyDistance(new int[]{6, 7}, new int[]{6, 7}, Integer.MAX_VALUE, closure));
+        Assertions.assertEquals(0, AlgorithmUtils.boundedHierarchyDistance(new int[]{7}, new int[]{7}, 0, closure));
+        Assertions.assertEquals(2, AlgorithmUtils.boundedHierarchyDistance(new int[]{1, 6}, new int[]{1, 7}, Integer.MAX_VALUE, closure));
+        Random random = new Random(9);
+        for (int round = 0; round < 20000; round++) {
+            int[] tags1 = randomTags(random);
+            int[] tags2 = randomTags(random);
+            int expected = hierarchyDistance(tags1, tags2, closure);
+            int bound = random.nextInt(24) - 1;
+            int actual = AlgorithmUtils.boundedHierarchyDistance(tags1, tags2, bound, closure);
+            Assertions.assertEquals(expected <= bound ? expected : Integer.MAX_VALUE, actual,
+                    Arrays.toString(tags1) + " " + Arrays.toString(tags2) + " " + bound);
+            Assertions.assertEquals(expected, AlgorithmUtils.boundedHierarchyDistance(tags1, tags2, Integer.MAX_VALUE, closure));
+        }
+    }
+
+    private int hierarchyDistance(int[] tags1, int[] tags2, TagClosure closure) {
+        int[][] d = new int[tags1.length + 1][tags2.length + 1];
+        for (int i = 0; i <= tags1.length; i++) {
+            d[i][0] = 2 * i;
+        }
+        for (int j = 0; j <= tags2.length; j++) {
+            d[0][j] = 2 * j;
+        }
+        for (int i = 1; i <= tags1.length; i++) {
+            for (int j = 1; j <= tags2.length; j++) {
+                int a = tags1[i - 1];
+                int b = tags2[j - 1];
+                int cost = a == b ? 0 : closure.isRelated(a, b) ? 1 : 2;
+                d[i][j] = Math.min(Math.min(d[i - 1][j], d[i][j - 1]) + 2, d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[tags1.length][tags2.length];
+    }
+
+    /**
+     * 随机标签 id 数组，id 取值 [0, 8)，其中 6、7 超出层级测试中闭包的范围
+     */
+    private int[] randomTags(Random random) {
+        int[] tags = new int[random.nextInt(10)];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = random.nextInt(8);
+        }
+        return tags;
+    }
+}
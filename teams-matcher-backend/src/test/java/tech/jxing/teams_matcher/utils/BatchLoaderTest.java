@@ -0,0 +1,65 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量加载器测试
+ * @author JunXing
+ */
+public class BatchLoaderTest {
+
+    @Test
+    public void testLoadInOneBatch() {
+        List<Collection<Long>> calls = new ArrayList<>();
+        BatchLoader<Long, String> loader = new BatchLoader<>(keys -> {
+            calls.add(new ArrayList<>(keys));
+            Map<Long, String> result = new HashMap<>();
+            // 奇数 key 视为不存在
+            keys.stream().filter(key -> key % 2 == 0).forEach(key -> result.put(key, "v" + key));
+            return result;
+        }, "missing", 100);
+        String[] values = new String[5];
+        long[] keys = {2, 3, 2, 4, 6};
+        for (int i = 0; i < keys.length; i++) {
+            int index = i;
+            loader.load(keys[i], value -> values[index] = value);
+        }
+        // dispatch 之前不查询
+        Assertions.assertTrue(calls.isEmpty());
+        loader.dispatch();
+        Assertions.assertEquals(1, calls.size());
+        Assertions.assertEquals(Arrays.asList(2L, 3L, 4L, 6L), calls.get(0));
+        Assertions.assertArrayEquals(new String[]{"v2", "missing", "v2", "v4", "v6"}, values);
+        // 已缓存的 key 不再查询
+        Assertions.assertEquals("v4", loader.get(4L));
+        Assertions.assertEquals("missing", loader.get(3L));
+        Assertions.assertEquals(1, loader.getBatchCount());
+        Assertions.assertEquals("missing", loader.get(null));
+    }
+
+    @Test
+    public void testSplitByMaxBatchSize() {
+        List<Integer> batchSizes = new ArrayList<>();
+        BatchLoader<Integer, Integer> loader = new BatchLoader<>(keys -> {
+            batchSizes.add(keys.size());
+            Map<Integer, Integer> result = new HashMap<>();
+            keys.forEach(key -> result.put(key, key * 10));
+            return result;
+        }, null, 3);
+        int[] sum = {0};
+        for (int key = 0; key < 7; key++) {
+            loader.load(key, value -> sum[0] += value);
+        }
+        loader.dispatch();
+        Assertions.assertEquals(Arrays.asList(3, 3, 1), batchSizes);
+        Assertions.assertEquals(210, sum[0]);
+    }
+}
@@ -0,0 +1,101 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * HNSW 索引测试
+ * @author JunXing
+ */
+public class HnswIndexTest {
+
+    private static final int DIMENSION = 16;
+
+    /**
+     * 与暴力计算结果对比，平均召回率应足够高
+     */
+    @Test
+    public void testRecallAgainstBruteForce() {
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex(DIMENSION, 12, 100, 1);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            float[] vector = randomVector(random);
+            vectors.add(vector);
+            index.put(i, vector);
+        }
+        double recallSum = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> expected = bruteForce(vectors, query, 10);
+            Set<Long> actual = index.search(query, 10, 64, -1).stream()
+                    .map(HnswIndex.Neighbor::getKey)
+                    .collect(Collectors.toSet());
+            actual.retainAll(expected);
+            recallSum += actual.size() / 10.0;
+        }
+        Assertions.assertTrue(recallSum / queries > 0.9, "recall: " + recallSum / queries);
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        Random random = new Random(5);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 50, 1);
+        for (int i = 0; i < 500; i++) {
+            index.put(i, randomVector(random));
+        }
+        float[] target = randomVector(random);
+        // 更新后该 key 应成为与目标最近的结果
+        index.put(42, target);
+        List<HnswIndex.Neighbor> result = index.search(target, 5, 32, -1);
+        Assertions.assertEquals(42, result.get(0).getKey());
+        Assertions.assertEquals(0f, result.get(0).getDistance(), 1e-5);
+        // 被排除的 key 不出现在结果中
+        Assertions.assertTrue(index.search(target, 5, 32, 42).stream().noneMatch(n -> n.getKey() == 42));
+        // 删除后不再出现在结果中，重新写入后恢复
+        index.remove(42);
+        Assertions.assertEquals(499, index.size());
+        Assertions.assertTrue(index.search(target, 5, 32, -1).stream().noneMatch(n -> n.getKey() == 42));
+        index.put(42, target);
+        Assertions.assertEquals(42, index.search(target, 5, 32, -1).get(0).getKey());
+        Assertions.assertEquals(500, index.size());
+    }
+
+    private static Set<Long> bruteForce(List<float[]> vectors, float[] query, int k) {
+        List<long[]> scored = new ArrayList<>();
+        for (int i = 0; i < vectors.size(); i++) {
+            float dot = 0;
+            for (int d = 0; d < DIMENSION; d++) {
+                dot += vectors.get(i)[d] * query[d];
+            }
+            scored.add(new long[]{i, Float.floatToIntBits(2 - dot)});
+        }
+        return scored.stream()
+                .sorted(Comparator.comparingLong(s -> s[1]))
+                .limit(k)
+                .map(s -> s[0])
+                .collect(Collectors.toSet());
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        float norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        norm = (float) Math.sqrt(norm);
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,33 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 键集分页游标测试
+ * @author JunXing
+ */
+public class KeysetCursorTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        KeysetCursor cursor = new KeysetCursor(1712628944000L, 123456789L);
+        String token = cursor.encode();
+        // URL 安全，可直接作为查询参数
+        Assertions.assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        KeysetCursor decoded = KeysetCursor.decode(token);
+        Assertions.assertNotNull(decoded);
+        Assertions.assertEquals(1712628944000L, decoded.getCreateTime());
+        Assertions.assertEquals(123456789L, decoded.getId());
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        Assertions.assertNull(KeysetCursor.decode(null));
+        Assertions.assertNull(KeysetCursor.decode(""));
+        Assertions.assertNull(KeysetCursor.decode("not a cursor!"));
+        Assertions.assertNull(KeysetCursor.decode("AAAA"));
+        // id 必须为正数
+        Assertions.assertNull(KeysetCursor.decode(new KeysetCursor(0L, 0L).encode()));
+    }
+}
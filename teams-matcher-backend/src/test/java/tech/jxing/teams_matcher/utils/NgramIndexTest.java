@@ -0,0 +1,62 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * n-gram 全文索引测试
+ * @author JunXing
+ */
+public class NgramIndexTest {
+
+    @Test
+    public void testSearch() {
+        NgramIndex index = new NgramIndex(3f, 1f);
+        index.put(1, "Java 学习小队", "一起刷算法题");
+        index.put(2, "考研互助", "每天打卡，学习数学和英语");
+        index.put(3, "羽毛球", null);
+        // 中文子串匹配，名称命中排在描述命中之前
+        Assertions.assertEquals(Arrays.asList(1L, 2L), index.search("学习", 10));
+        // 忽略大小写与全角字符
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("ＪＡＶＡ", 10));
+        // 单字查询
+        Assertions.assertEquals(Collections.singletonList(3L), index.search("球", 10));
+        // 必须包含全部词项
+        Assertions.assertTrue(index.search("学习羽毛球", 10).isEmpty());
+        Assertions.assertTrue(index.search("！？", 10).isEmpty());
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("学习", 1));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        NgramIndex index = new NgramIndex(3f, 1f);
+        index.put(1, "篮球", null);
+        index.put(1, "足球", null);
+        Assertions.assertTrue(index.search("篮球", 10).isEmpty());
+        Assertions.assertEquals(Collections.singletonList(1L), index.search("足球", 10));
+        Assertions.assertTrue(index.remove(1));
+        Assertions.assertFalse(index.remove(1));
+        Assertions.assertTrue(index.search("足球", 10).isEmpty());
+        Assertions.assertEquals(0, index.size());
+    }
+
+    /**
+     * 反复更新触发压缩后，搜索结果不变
+     */
+    @Test
+    public void testCompact() {
+        NgramIndex index = new NgramIndex(1f);
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 1000; id++) {
+                index.put(id, (id % 2 == 0 ? "偶数" : "奇数") + "队伍" + id);
+            }
+        }
+        Assertions.assertEquals(1000, index.size());
+        Assertions.assertEquals(500, index.search("偶数队伍", 1000).size());
+        // 二字组合全部命中即视为匹配（777 与 77 都包含 "77"），完全匹配的排在最前
+        Assertions.assertEquals(777L, index.search("奇数队伍777", 10).get(0));
+    }
+}
@@ -0,0 +1,53 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * 标签层级闭包测试
+ * @author JunXing
+ */
+public class TagClosureTest {
+
+    /**
+     * 0 - 编程语言
+     * ├── 1 - Java
+     * │   └── 3 - Spring
+     * └── 2 - Python
+     * 4 - 大一（独立标签）
+     */
+    @Test
+    public void testAncestorAndDescendant() {
+        TagClosure closure = TagClosure.build(new int[]{-1, 0, 0, 1, -1});
+        Assertions.assertTrue(closure.isAncestor(0, 3));
+        Assertions.assertTrue(closure.isAncestor(1, 3));
+        Assertions.assertFalse(closure.isAncestor(3, 1));
+        Assertions.assertFalse(closure.isAncestor(1, 1));
+        Assertions.assertTrue(closure.isRelated(3, 1));
+        Assertions.assertFalse(closure.isRelated(2, 3));
+        Assertions.assertFalse(closure.isRelated(4, 0));
+        // 超出闭包范围的标签（字典中后加入的标签）与任何标签都没有关系
+        Assertions.assertFalse(closure.isRelated(0, 100));
+        Assertions.assertArrayEquals(new int[]{1, 0}, closure.ancestors(3));
+        Assertions.assertArrayEquals(new int[0], closure.ancestors(4));
+        int[] descendants = closure.descendants(0);
+        Arrays.sort(descendants);
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, descendants);
+        Assertions.assertArrayEquals(new int[0], closure.descendants(2));
+    }
+
+    @Test
+    public void testCycleIsBroken() {
+        // 0 -> 1 -> 2 -> 0 成环，3 挂在 2 下
+        TagClosure closure = TagClosure.build(new int[]{1, 2, 0, 2});
+        Assertions.assertTrue(closure.isAncestor(2, 3));
+        // 环被断开后，任意两个标签之间不会互为祖先
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 4; b++) {
+                Assertions.assertFalse(closure.isAncestor(a, b) && closure.isAncestor(b, a));
+            }
+        }
+    }
+}
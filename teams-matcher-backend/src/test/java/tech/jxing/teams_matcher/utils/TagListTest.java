@@ -0,0 +1,56 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+/**
+ * 标签列表测试
+ * @author JunXing
+ */
+public class TagListTest {
+
+    @Test
+    public void testParse() {
+        TagList tagList = TagList.parse("[\"java\",null,\"男\"]");
+        Assertions.assertEquals(Arrays.asList("java", "男"), tagList);
+        Assertions.assertEquals(Arrays.asList("java", "男").hashCode(), tagList.hashCode());
+        Assertions.assertNull(TagList.parse(null));
+        Assertions.assertNull(TagList.parse(" "));
+        Assertions.assertSame(TagList.EMPTY, TagList.parse("[]"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> tagList.add("c++"));
+    }
+
+    /**
+     * 内容相同的标签列表共享同一实例，相同的标签名共享同一字符串
+     */
+    @Test
+    public void testInterned() {
+        TagList first = TagList.parse(new String("[\"python\",\"大一\"]"));
+        TagList second = TagList.parse(new String("[\"python\",\"大一\"]"));
+        TagList reformatted = TagList.parse("[ \"python\", \"大一\" ]");
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first, reformatted);
+        Assertions.assertSame(first.getJson(), reformatted.getJson());
+        TagList other = TagList.parse("[\"大一\",\"go\"]");
+        Assertions.assertNotEquals(first, other);
+        Assertions.assertSame(first.get(1), other.get(0));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        TagList tagList = TagList.parse("[\"rust\",\"大二\"]");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tagList);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assertions.assertSame(tagList, in.readObject());
+        }
+    }
+}
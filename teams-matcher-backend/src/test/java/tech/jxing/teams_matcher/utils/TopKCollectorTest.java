@@ -0,0 +1,98 @@
+package tech.jxing.teams_matcher.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Top-K 收集器测试
+ * @author JunXing
+ */
+public class TopKCollectorTest {
+
+    /**
+     * Top-K 的结果需要与“全量稳定排序后取前 K 个”完全一致
+     */
+    @Test
+    public void testSameAsStableSortAndLimit() {
+        Random random = new Random(42);
+        List<long[]> candidates = new ArrayList<>();
+        for (long id = 0; id < 10000; id++) {
+            // 分数取值范围小，制造大量相同分数
+            candidates.add(new long[]{id, random.nextInt(8)});
+        }
+        TopKCollector<Long> topK = new TopKCollector<>(20);
+        for (long[] candidate : candidates) {
+            topK.offer(candidate[0], candidate[1]);
+        }
+        List<Long> expected = candidates.stream()
+                .sorted(Comparator.comparingLong(c -> c[1]))
+                .limit(20)
+                .map(c -> c[0])
+                .collect(Collectors.toList());
+        List<Long> actual = topK.toSortedList().stream()
+                .map(TopKCollector.Entry::getItem)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testThreshold() {
+        TopKCollector<String> topK = new TopKCollector<>(2);
+        Assertions.assertEquals(Long.MAX_VALUE, topK.threshold());
+        topK.offer("a", 5);
+        topK.offer("b", 3);
+        Assertions.assertEquals(5, topK.threshold());
+        // 与第 K 名分数相同的元素不会挤掉先加入的元素
+        Assertions.assertFalse(topK.offer("c", 5));
+        Assertions.assertTrue(topK.offer("d", 1));
+        Assertions.assertEquals(3, topK.threshold());
+        Assertions.assertEquals(2, topK.size());
+    }
+
+    @Test
+    public void testLargeScoreDifference() {
+        // 分数差超出 int 范围时也要保持正确的顺序
+        TopKCollector<String> topK = new TopKCollector<>(2);
+        topK.offer("big", Long.MAX_VALUE - 1);
+        topK.offer("small", Long.MIN_VALUE + 1);
+        topK.offer("zero", 0);
+        List<String> items = topK.toSortedList().stream()
+                .map(TopKCollector.Entry::getItem)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("small", "zero"), items);
+    }
+
+    /**
+     * 分段收集后合并的结果需要与顺序收集完全一致（包括同分时的先后次序）
+     */
+    @Test
+    public void testMergeSameAsSequential() {
+        Random random = new Random(3);
+        long[] scores = new long[5000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(5);
+        }
+        TopKCollector<Integer> sequential = new TopKCollector<>(20);
+        for (int i = 0; i < scores.length; i++) {
+            sequential.offer(i, scores[i], i);
+        }
+        TopKCollector<Integer> merged = new TopKCollector<>(20);
+        for (int from = scores.length - 1000; from >= 0; from -= 1000) {
+            TopKCollector<Integer> part = new TopKCollector<>(20);
+            for (int i = from; i < from + 1000; i++) {
+                part.offer(i, scores[i], i);
+            }
+            merged.merge(part);
+        }
+        List<Integer> expected = sequential.toSortedList().stream().map(TopKCollector.Entry::getItem).collect(Collectors.toList());
+        List<Integer> actual = merged.toSortedList().stream().map(TopKCollector.Entry::getItem).collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,71 @@
+-- 测试用 H2 表结构（MODE=MySQL;NON_KEYWORDS=USER），与 sql 目录下的建表语句保持一致
+create table if not exists user
+(
+    id           bigint auto_increment primary key,
+    username     varchar(256)                       null,
+    userAccount  varchar(256)                       null,
+    avatarUrl    varchar(1024)                      null,
+    gender       tinyint                            null,
+    userPassword varchar(512)                       not null,
+    phone        varchar(128)                       null,
+    email        varchar(512)                       null,
+    userStatus   int      default 0                 not null,
+    createTime   datetime default CURRENT_TIMESTAMP null,
+    updateTime   datetime default CURRENT_TIMESTAMP null,
+    isDelete     tinyint  default 0                 not null,
+    userRole     int      default 0                 not null,
+    planetCode   varchar(512)                       null,
+    tags         varchar(1024)                      null
+);
+
+create table if not exists tag
+(
+    id         bigint auto_increment primary key,
+    tagName    varchar(256)                       null,
+    userId     bigint                             null,
+    parentId   bigint                             null,
+    isParent   tinyint                            null,
+    createTime datetime default CURRENT_TIMESTAMP null,
+    updateTime datetime default CURRENT_TIMESTAMP null,
+    isDelete   tinyint  default 0                 not null
+);
+
+create table if not exists user_tag
+(
+    id         bigint auto_increment primary key,
+    userId     bigint                             not null,
+    tagId      bigint                             not null,
+    createTime datetime default CURRENT_TIMESTAMP null,
+    constraint uniIdx_userId_tagId unique (userId, tagId)
+);
+
+create table if not exists team
+(
+    id          bigint auto_increment primary key,
+    name        varchar(256)                       not null,
+    description varchar(1024)                      null,
+    maxNum      int      default 1                 not null,
+    memberCount int      default 0                 not null,
+    expireTime  datetime                           null,
+    isExpired   tinyint  default 0                 not null,
+    userId      bigint                             null,
+    status      int      default 0                 not null,
+    password    varchar(512)                       null,
+    createTime  datetime default CURRENT_TIMESTAMP null,
+    updateTime  datetime default CURRENT_TIMESTAMP null,
+    isDelete    tinyint  default 0                 not null
+);
+
+create table if not exists user_team
+(
+    id         bigint auto_increment primary key,
+    userId     bigint                             null,
+    teamId     bigint                             null,
+    joinTime   datetime                           null,
+    createTime datetime default CURRENT_TIMESTAMP null,
+    updateTime datetime default CURRENT_TIMESTAMP null,
+    isDelete   tinyint  default 0                 not null,
+    activeFlag tinyint as (case when isDelete = 0 then 1 end)
+);
+
+create unique index if not exists uniIdx_userId_teamId_activeFlag on user_team (userId, teamId, activeFlag);